@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from JVM launch to the first successful GET /api/stocks, for the plain
+# fat jar and for the fast-startup build (Spring AOT + AppCDS archive).
+#
+#   cd backend
+#   mvn -Pfast-startup package -DskipTests   # builds both the fat jar and target/fast-startup
+#   scripts/startup-benchmark.sh [runs]      # default 5 runs per variant
+#
+# The API needs a user, and the in-memory database starts empty, so each probe registers and logs in
+# one fixed user before calling GET /api/stocks. That adds one BCrypt check to every variant equally.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+BASE="http://localhost:${PORT}"
+JAR=target/stockmanager-0.0.1-SNAPSHOT.jar
+FAST_DIR=target/fast-startup
+USER_JSON='{"username":"bench","password":"bench"}'
+
+cd "$(dirname "$0")/.."
+[[ -f "$JAR" ]] || { echo "missing $JAR; run mvn -Pfast-startup package first" >&2; exit 1; }
+[[ -f "$FAST_DIR/application.jsa" ]] || { echo "missing $FAST_DIR/application.jsa; run mvn -Pfast-startup package first" >&2; exit 1; }
+
+now_ms() { date +%s%3N; }
+
+probe() {
+    local token
+    curl -s -o /dev/null -X POST "$BASE/api/auth/register" -H 'Content-Type: application/json' -d "$USER_JSON" || return 1
+    token=$(curl -sf -X POST "$BASE/api/auth/login" -H 'Content-Type: application/json' -d "$USER_JSON" \
+        | sed -n 's/.*"token":"\([^"]*\)".*/\1/p') || return 1
+    [[ -n "$token" ]] || return 1
+    curl -sf -o /dev/null -H "Authorization: Bearer $token" "$BASE/api/stocks"
+}
+
+# run_once <workdir> <java args...>; prints milliseconds to first successful GET /api/stocks
+run_once() {
+    local dir=$1; shift
+    local start pid elapsed
+    start=$(now_ms)
+    (cd "$dir" && exec java "$@" --server.port="$PORT" --spring.jpa.show-sql=false >/dev/null 2>&1) &
+    pid=$!
+    until probe; do
+        if ! kill -0 "$pid" 2>/dev/null; then echo "server exited during startup" >&2; return 1; fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+# summarize <label> <values...>
+summarize() {
+    local label=$1; shift
+    printf '%s\n' "$@" | sort -n | awk -v label="$label" '
+        { v[NR] = $1; sum += $1 }
+        END { printf "%-14s runs=%d min=%dms median=%dms max=%dms mean=%.0fms\n",
+              label, NR, v[1], v[int((NR + 1) / 2)], v[NR], sum / NR }'
+}
+
+baseline=(); fast=()
+for i in $(seq 1 "$RUNS"); do
+    baseline+=("$(run_once . -jar "$JAR")")
+    fast+=("$(run_once "$FAST_DIR" -XX:SharedArchiveFile=application.jsa -Xlog:cds=off -Dspring.aot.enabled=true \
+        -jar stockmanager-0.0.1-SNAPSHOT.jar)")
+    echo "run $i: baseline=${baseline[-1]}ms fast-startup=${fast[-1]}ms"
+done
+
+summarize baseline "${baseline[@]}"
+summarize fast-startup "${fast[@]}"
@@ -0,0 +1,59 @@
+package com.stockmanager.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR and Smile as alternatives to JSON, selected by the {@code Accept} header. The converters use
+ * the application's Jackson settings, and they take the place of Spring MVC's defaults, which come
+ * after JSON, so clients that accept anything still get JSON.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final List<MediaType> BINARY = List.of(MediaType.APPLICATION_CBOR, SMILE);
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * The binary format the client ranks above JSON, or null if it prefers JSON. Equal quality goes
+     * to the type listed first, and a wildcard counts as JSON.
+     * <p>
+     * For handlers that normally write pre-serialized JSON: when this returns a binary type they
+     * must hand objects to the converters instead and tag the response per format.
+     */
+    public static MediaType preferredBinary(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) return null;
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException ex) {
+            return null;
+        }
+        MediaType best = null;
+        for (MediaType type : accepted) {
+            boolean usable = type.includes(MediaType.APPLICATION_JSON) || BINARY.stream().anyMatch(type::includes);
+            if (usable && (best == null || type.getQualityValue() > best.getQualityValue())) best = type;
+        }
+        if (best == null || best.includes(MediaType.APPLICATION_JSON)) return null;
+        return BINARY.stream().filter(best::includes).findFirst().orElse(null);
+    }
+}
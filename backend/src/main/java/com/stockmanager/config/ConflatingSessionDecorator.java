@@ -0,0 +1,204 @@
+package com.stockmanager.config;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * Per-session outbound queue that keeps a slow client from holding up anyone else.
+ * <p>
+ * {@link #sendMessage} only queues the frame and returns, so the broker's outbound threads never
+ * block on a socket; the queue is written out on a separate sender pool, one task per session at a
+ * time. While frames are waiting, a newer {@code /topic/stocks} tick replaces the queued one for the
+ * same stock and subscription, so a lagging client skips intermediate prices (its {@code sequence}
+ * headers then have gaps) but never sees them out of order. If the queue still grows past the
+ * buffer limit the session is terminated; {@link OutboundSessions} also terminates sessions whose
+ * current write has been blocked longer than the send time limit.
+ */
+public class ConflatingSessionDecorator extends WebSocketSessionDecorator {
+    private static final String STOCK_TOPIC = "/topic/stocks";
+    // Frames written per sender task before yielding the thread to other sessions
+    private static final int MAX_FRAMES_PER_TASK = 256;
+
+    record ConflationKey(String subscription, String stockId) {}
+
+    private record Pending(WebSocketMessage<?> message, long queuedAtNanos) {}
+
+    private final Executor sender;
+    private final int bufferSizeLimit;
+    private final Runnable onConflated;
+    private final Runnable onOverflow;
+
+    // guarded by this
+    private final LinkedHashMap<Object, Pending> pending = new LinkedHashMap<>();
+    private long pendingBytes;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    private volatile long sendStartedAtNanos;
+    private volatile long sent;
+    private volatile long conflated;
+
+    public ConflatingSessionDecorator(WebSocketSession session, Executor sender, int bufferSizeLimit,
+                                      Runnable onConflated, Runnable onOverflow) {
+        super(session);
+        this.sender = sender;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.onConflated = onConflated;
+        this.onOverflow = onOverflow;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        ConflationKey key = message instanceof TextMessage text ? conflationKey(text.getPayload()) : null;
+        synchronized (this) {
+            if (closed) return;
+            if (key != null) {
+                Pending replaced = pending.remove(key);
+                if (replaced != null) {
+                    pendingBytes -= replaced.message().getPayloadLength();
+                    conflated++;
+                    onConflated.run();
+                }
+            }
+            pending.put(key != null ? key : new Object(), new Pending(message, System.nanoTime()));
+            pendingBytes += message.getPayloadLength();
+            if (pendingBytes > bufferSizeLimit) {
+                discard();
+                onOverflow.run();
+                throw new SessionLimitExceededException("Outbound buffer of " + pendingBytes
+                        + " bytes exceeds the limit for session " + getId(), CloseStatus.SESSION_NOT_RELIABLE);
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                sender.execute(this::flush);
+            }
+        }
+    }
+
+    private void flush() {
+        for (int i = 0; i < MAX_FRAMES_PER_TASK; i++) {
+            WebSocketMessage<?> next;
+            synchronized (this) {
+                Iterator<Pending> it = pending.values().iterator();
+                if (closed || !it.hasNext()) {
+                    flushScheduled = false;
+                    return;
+                }
+                next = it.next().message();
+                it.remove();
+                pendingBytes -= next.getPayloadLength();
+                sendStartedAtNanos = System.nanoTime();
+            }
+            try {
+                getDelegate().sendMessage(next);
+                sent++;
+            } catch (IOException | RuntimeException ex) {
+                synchronized (this) {
+                    discard();
+                }
+                closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            } finally {
+                sendStartedAtNanos = 0;
+            }
+        }
+        // Still busy: requeue behind the other sessions
+        sender.execute(this::flush);
+    }
+
+    // Caller holds the lock
+    private void discard() {
+        closed = true;
+        flushScheduled = false;
+        pending.clear();
+        pendingBytes = 0;
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        synchronized (this) {
+            discard();
+        }
+        super.close(status);
+    }
+
+    void closeQuietly(CloseStatus status) {
+        try {
+            close(status);
+        } catch (IOException | RuntimeException ex) {
+            // already gone
+        }
+    }
+
+    public synchronized int getPendingMessages() {
+        return pending.size();
+    }
+
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    // How long the oldest queued frame has been waiting
+    public long getLagMillis() {
+        long queuedAt;
+        synchronized (this) {
+            if (pending.isEmpty()) return 0;
+            queuedAt = pending.values().iterator().next().queuedAtNanos();
+        }
+        return (System.nanoTime() - queuedAt) / 1_000_000;
+    }
+
+    // How long the current write has been blocked on the socket, 0 if none is in progress
+    public long getSendingMillis() {
+        long started = sendStartedAtNanos;
+        return started == 0 ? 0 : (System.nanoTime() - started) / 1_000_000;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getConflated() {
+        return conflated;
+    }
+
+    /**
+     * The key under which a STOMP frame may replace an older queued one: set for stock ticks
+     * (MESSAGE frames to {@code /topic/stocks} carrying a {@code stock-id} header), null otherwise.
+     */
+    static ConflationKey conflationKey(String frame) {
+        if (!frame.startsWith("MESSAGE\n")) return null;
+        int end = frame.indexOf("\n\n");
+        if (end < 0) return null;
+        String destination = null;
+        String subscription = null;
+        String stockId = null;
+        int line = "MESSAGE\n".length();
+        while (line < end) {
+            int next = frame.indexOf('\n', line);
+            int colon = frame.indexOf(':', line);
+            if (colon > 0 && colon < next) {
+                String name = frame.substring(line, colon);
+                // STOMP: the first occurrence of a repeated header wins
+                switch (name) {
+                    case "destination" -> { if (destination == null) destination = frame.substring(colon + 1, next); }
+                    case "subscription" -> { if (subscription == null) subscription = frame.substring(colon + 1, next); }
+                    case "stock-id" -> { if (stockId == null) stockId = frame.substring(colon + 1, next); }
+                    default -> { }
+                }
+            }
+            line = next + 1;
+        }
+        if (!STOCK_TOPIC.equals(destination) || stockId == null) return null;
+        return new ConflationKey(subscription, stockId);
+    }
+}
@@ -0,0 +1,129 @@
+package com.stockmanager.config;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Wraps every WebSocket session in a {@link ConflatingSessionDecorator}, runs the sender pool that
+ * writes their queues out, and terminates sessions whose write has been blocked for longer than
+ * {@code app.websocket.send-time-limit-ms}. Per-session lag is listed by the
+ * {@code websocketsessions} actuator endpoint; totals are published as {@code websocket.*} metrics.
+ */
+@Component
+public class OutboundSessions implements WebSocketHandlerDecoratorFactory {
+    private static final Logger log = LoggerFactory.getLogger(OutboundSessions.class);
+
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+    private final ExecutorService sender;
+    private final Map<String, ConflatingSessionDecorator> sessions = new ConcurrentHashMap<>();
+
+    private final Counter conflated;
+    private final Counter terminatedSlow;
+    private final Counter terminatedOverflow;
+
+    public OutboundSessions(@Value("${app.websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+                            @Value("${app.websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                            @Value("${app.websocket.sender-threads:8}") int senderThreads,
+                            MeterRegistry meterRegistry) {
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "ws-sender-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.conflated = Counter.builder("websocket.outbound.conflated")
+                .description("Stock ticks replaced by a newer tick while queued for a lagging session")
+                .register(meterRegistry);
+        this.terminatedSlow = Counter.builder("websocket.sessions.terminated")
+                .description("Slow sessions closed by the server")
+                .tag("reason", "send-time")
+                .register(meterRegistry);
+        this.terminatedOverflow = Counter.builder("websocket.sessions.terminated")
+                .description("Slow sessions closed by the server")
+                .tag("reason", "buffer-size")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.lagging", sessions,
+                        s -> s.values().stream().filter(d -> d.getPendingMessages() > 0).count())
+                .description("Sessions with frames waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.lag.max", sessions,
+                        s -> s.values().stream().mapToLong(ConflatingSessionDecorator::getLagMillis).max().orElse(0))
+                .description("Age of the oldest frame waiting for any session")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public int getSendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    public int getSendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+
+    public Collection<ConflatingSessionDecorator> sessions() {
+        return sessions.values();
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                ConflatingSessionDecorator decorated =
+                        new ConflatingSessionDecorator(session, sender, sendBufferSizeLimit,
+                                conflated::increment, terminatedOverflow::increment);
+                sessions.put(session.getId(), decorated);
+                super.afterConnectionEstablished(decorated);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // A blocked write holds a sender thread; closing the socket releases it
+    @Scheduled(fixedDelay = 1000)
+    public void terminateStuckSessions() {
+        for (ConflatingSessionDecorator session : sessions.values()) {
+            long sendingMs = session.getSendingMillis();
+            if (sendingMs > sendTimeLimitMs) {
+                log.warn("Closing WebSocket session {}: write blocked for {} ms with {} frames queued",
+                        session.getId(), sendingMs, session.getPendingMessages());
+                terminatedSlow.increment();
+                session.closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,106 @@
+package com.stockmanager.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.exception.ApiError;
+import com.stockmanager.service.RateLimitService;
+import com.stockmanager.service.RateLimitService.EndpointClass;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Runs right after JwtAuthenticationFilter, so limits are keyed by the authenticated user
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Anonymous, but limited per token family by RefreshTokenService rather than per client address,
+    // so clients sharing an address (NAT, a proxy) do not exhaust each other's refreshes
+    private static final String REFRESH_PATH = "/api/auth/refresh";
+
+    private final RateLimitService rateLimitService;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitService rateLimitService, ObjectMapper objectMapper) {
+        this.rateLimitService = rateLimitService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/")
+                || request.getRequestURI().equals(REFRESH_PATH)
+                || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        long waitNanos = rateLimitService.tryAcquire(caller(request), endpointClass);
+        if (waitNanos > 0) {
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS,
+                    RateLimitService.retryAfterSeconds(waitNanos), "Rate limit exceeded");
+            return;
+        }
+
+        if (endpointClass == EndpointClass.READ || endpointClass == EndpointClass.AUTH) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!rateLimitService.tryEnterWrite()) {
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many concurrent writes");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            rateLimitService.releaseWrite();
+        }
+    }
+
+    private static EndpointClass classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+        if (uri.startsWith("/api/auth/")) return EndpointClass.AUTH;
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) return EndpointClass.READ;
+        if (HttpMethod.PUT.matches(method) && uri.startsWith("/api/stocks/") && uri.endsWith("/price")) {
+            return EndpointClass.PRICE_UPDATE;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    private static String caller(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        // The proxy's address unless server.forward-headers-strategy resolves the client's
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        HttpStatus status, long retryAfterSeconds, String message) throws IOException {
+        ApiError err = new ApiError();
+        err.setStatus(status.value());
+        err.setError(status.getReasonPhrase());
+        err.setMessage(message);
+        err.setPath(request.getRequestURI());
+
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), err);
+    }
+}
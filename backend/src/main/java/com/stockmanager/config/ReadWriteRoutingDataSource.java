@@ -0,0 +1,67 @@
+package com.stockmanager.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica while it is healthy and fresh enough, everything
+ * else (writes, non-transactional access, schema management) to the primary.
+ * <p>
+ * The lookup relies on the transaction's read-only flag, which Spring only publishes after the
+ * transaction has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers fetching the
+ * physical connection to the first statement. A replica that fails to hand out a connection is
+ * reported to the {@link ReplicaMonitor} and the read goes to the primary instead.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final ReplicaMonitor monitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaMonitor monitor) {
+        this.primary = primary;
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return readOnly && monitor.isUsable() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object route = determineCurrentLookupKey();
+        if (route != Route.REPLICA) return primary.getConnection();
+        try {
+            return determineTargetDataSource().getConnection();
+        } catch (SQLException ex) {
+            monitor.markDown(ex);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Object route = determineCurrentLookupKey();
+        if (route != Route.REPLICA) return primary.getConnection(username, password);
+        try {
+            return determineTargetDataSource().getConnection(username, password);
+        } catch (SQLException ex) {
+            monitor.markDown(ex);
+            return primary.getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.stockmanager.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read/write splitting, active only when {@code app.datasource.replica.url} is set. The primary pool
+ * is built from the usual {@code spring.datasource.*} settings; transactions marked
+ * {@code readOnly = true} are served by the replica pool (see {@link ReadWriteRoutingDataSource}).
+ * Only mark reads whose results are neither cached nor served under an ETag that way, unless they
+ * check that the replica has applied the version first (as price history does through
+ * {@code ResourceVersions.historyReplicated}): a cache filled from a lagging replica stays stale well
+ * past {@code max-staleness-ms}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password,
+                                              @Value("${app.datasource.replica.maximum-pool-size:10}") int maxPoolSize,
+                                              @Value("${app.datasource.replica.connection-timeout-ms:1000}") long connectionTimeoutMs) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setJdbcUrl(url);
+        ds.setUsername(username);
+        ds.setPassword(password);
+        ds.setMaximumPoolSize(maxPoolSize);
+        // A dead replica must fail fast so the read can fall back to the primary
+        ds.setConnectionTimeout(connectionTimeoutMs);
+        ds.setInitializationFailTimeout(-1);
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(HikariDataSource primaryDataSource,
+                                         HikariDataSource replicaDataSource,
+                                         @Value("${app.datasource.replica.max-staleness-ms:2000}") long maxStalenessMs,
+                                         MeterRegistry meterRegistry) {
+        return new ReplicaMonitor(primaryDataSource, replicaDataSource, maxStalenessMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 ReplicaMonitor replicaMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaMonitor));
+    }
+}
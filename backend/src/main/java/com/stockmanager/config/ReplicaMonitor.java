@@ -0,0 +1,125 @@
+package com.stockmanager.config;
+
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks whether the read replica may serve reads.
+ * <p>
+ * Every interval the primary's {@code replica_heartbeat} row is stamped with the current time and
+ * read back from the replica. The replica holds at least everything the primary had when the beat it
+ * returns was written, so {@code now - beat} bounds how stale a read from it can be; once that
+ * exceeds {@code app.datasource.replica.max-staleness-ms}, or the replica stops answering, reads go
+ * to the primary until a probe succeeds again.
+ */
+public class ReplicaMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxStalenessMs;
+    private final LongSupplier clock;
+
+    private enum State { UNKNOWN, UP, DOWN }
+
+    private volatile State state = State.UNKNOWN;
+    // beat_at last read from the replica; Long.MIN_VALUE until the first one arrives
+    private volatile long lastSeenBeat = Long.MIN_VALUE;
+
+    public ReplicaMonitor(DataSource primary, DataSource replica, long maxStalenessMs,
+                          MeterRegistry meterRegistry) {
+        this(primary, replica, maxStalenessMs, meterRegistry, System::currentTimeMillis);
+    }
+
+    public ReplicaMonitor(DataSource primary, DataSource replica, long maxStalenessMs,
+                          MeterRegistry meterRegistry, LongSupplier clock) {
+        if (maxStalenessMs <= 0) {
+            throw new IllegalArgumentException("app.datasource.replica.max-staleness-ms must be positive");
+        }
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxStalenessMs = maxStalenessMs;
+        this.clock = clock;
+        Gauge.builder("datasource.replica.staleness", this, m -> m.stalenessMillis())
+                .description("Upper bound on replica staleness, in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, m -> m.isUsable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.heartbeat-interval-ms:250}")
+    public void heartbeat() {
+        beat();
+        probe();
+    }
+
+    void beat() {
+        long now = clock.getAsLong();
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException ex) {
+            // Another instance may have inserted the row first; the next beat updates it
+            log.debug("Replica heartbeat write failed", ex);
+        }
+    }
+
+    void probe() {
+        try {
+            Long beat = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            if (beat != null) lastSeenBeat = beat;
+            if (state != State.UP) log.info("Read replica reachable, staleness {} ms", stalenessMillis());
+            state = State.UP;
+        } catch (EmptyResultDataAccessException ex) {
+            // Reachable, but the first beat has not replicated yet
+            state = State.UP;
+        } catch (DataAccessException ex) {
+            markDown(ex);
+        }
+    }
+
+    public boolean isUsable() {
+        return state == State.UP && stalenessMillis() <= maxStalenessMs;
+    }
+
+    /**
+     * The current point on the primary, to be checked against {@link #hasApplied} later. Taken after
+     * a commit, it marks a point the replica must pass before it is sure to return that commit.
+     */
+    public long position() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Whether the replica held everything the primary had committed at {@code position}: the beat it
+     * returned was written after that point.
+     */
+    public boolean hasApplied(long position) {
+        long beat = lastSeenBeat;
+        return beat != Long.MIN_VALUE && beat > position;
+    }
+
+    public void markDown(Exception cause) {
+        if (state != State.DOWN) log.warn("Read replica unavailable, routing reads to the primary: {}", cause.toString());
+        state = State.DOWN;
+    }
+
+    long stalenessMillis() {
+        long beat = lastSeenBeat;
+        return beat == Long.MIN_VALUE ? Long.MAX_VALUE : Math.max(0, clock.getAsLong() - beat);
+    }
+}
@@ -20,7 +20,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockmanager.service.CustomUserDetailsService;
+import com.stockmanager.service.RateLimitService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -31,6 +33,8 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtils jwtUtils;
+    private final RateLimitService rateLimitService;
+    private final ObjectMapper objectMapper;
     
     @Value("${frontend.origin}")
     private String frontendOrigin;
@@ -72,6 +76,9 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/ws/**").permitAll()  // <-- allow websocket handshake
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll() // load balancer probes
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                .requestMatchers("/api/alerts/**").hasAnyRole("USER", "ADMIN") // alerts are personal, not admin data
                 .requestMatchers(HttpMethod.GET, "/api/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/**").hasRole("ADMIN")
@@ -80,6 +87,8 @@ public class SecurityConfig {
             );
 
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Not a bean, so it only runs inside the security chain
+        http.addFilterAfter(new RateLimitFilter(rateLimitService, objectMapper), JwtAuthenticationFilter.class);
         return http.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.stockmanager.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.dto.ExchangeDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockJsonCache;
+import com.stockmanager.service.StockService;
+
+/**
+ * Warm-up before readiness. Application runners complete before Spring Boot moves readiness to
+ * ACCEPTING_TRAFFIC, so /actuator/health/readiness stays OUT_OF_SERVICE until this finishes.
+ * <p>
+ * Preloads every stock's serialized quote into {@link StockJsonCache} and the exchange
+ * memberships into the persistence layer, then runs the hot request paths (entity loading, DTO
+ * mapping, JSON serialization, JWT issue and validation) for {@code app.warmup.iterations} rounds
+ * so they are JIT-compiled before real traffic arrives.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    // Enough distinct stocks per round to exercise the per-item paths without scanning everything
+    private static final int SAMPLE = 50;
+
+    private final StockService stockService;
+    private final StockExchangeService exchangeService;
+    private final StockJsonCache stockJsonCache;
+    private final ObjectMapper objectMapper;
+    private final JwtUtils jwtUtils;
+    private final TransactionTemplate tx;
+    private final int iterations;
+
+    public WarmupRunner(StockService stockService,
+                        StockExchangeService exchangeService,
+                        StockJsonCache stockJsonCache,
+                        ObjectMapper objectMapper,
+                        JwtUtils jwtUtils,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.warmup.iterations:200}") int iterations) {
+        this.stockService = stockService;
+        this.exchangeService = exchangeService;
+        this.stockJsonCache = stockJsonCache;
+        this.objectMapper = objectMapper;
+        this.jwtUtils = jwtUtils;
+        // Not read-only: what is preloaded here is cached, so it must come from the primary, not a replica
+        this.tx = new TransactionTemplate(transactionManager);
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (iterations <= 0) return;
+        long start = System.nanoTime();
+        try {
+            List<Long> stockIds = tx.execute(status -> preload());
+            for (int i = 0; i < iterations; i++) {
+                int round = i;
+                tx.executeWithoutResult(status -> exercise(stockIds, round));
+            }
+            log.info("Warm-up finished: {} stocks preloaded, {} iterations in {} ms",
+                    stockIds.size(), iterations, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception ex) {
+            // A failed warm-up only costs latency; it must not keep the instance from serving
+            log.warn("Warm-up failed after {} ms; continuing startup", (System.nanoTime() - start) / 1_000_000, ex);
+        }
+    }
+
+    private List<Long> preload() {
+        List<Stock> stocks = stockService.listAll();
+        stockJsonCache.jsonArray(stocks, stockJsonCache.mark());
+        for (StockExchange ex : exchangeService.listAll()) {
+            ExchangeDto.from(ex);
+        }
+        return stocks.stream().map(Stock::getId).toList();
+    }
+
+    private void exercise(List<Long> stockIds, int round) {
+        try {
+            if (!stockIds.isEmpty()) {
+                for (int j = 0; j < Math.min(SAMPLE, stockIds.size()); j++) {
+                    Long id = stockIds.get((round * SAMPLE + j) % stockIds.size());
+                    stockJsonCache.serialize(stockService.getById(id));
+                    objectMapper.writeValueAsBytes(stockService.getPriceHistory(id).stream()
+                            .map(h -> Map.of("price", h.getPrice(), "timestamp", h.getTimestamp()))
+                            .toList());
+                }
+            }
+            for (StockExchange ex : exchangeService.listAll()) {
+                objectMapper.writeValueAsBytes(ExchangeDto.from(ex));
+            }
+            String token = jwtUtils.generateToken("warmup", Set.of("ROLE_USER"));
+            if (jwtUtils.validateJwtToken(token)) {
+                jwtUtils.getUsernameFromToken(token);
+                jwtUtils.getRolesFromToken(token);
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,26 +1,91 @@
 package com.stockmanager.config;
 
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import lombok.RequiredArgsConstructor;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    private final JwtUtils jwtUtils;
+    private final OutboundSessions outboundSessions;
+
     @Value("${frontend.origin}")
     private String frontendOrigin;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // where clients subscribe
+        config.enableSimpleBroker("/topic", "/queue"); // where clients subscribe
         config.setApplicationDestinationPrefixes("/app"); // where clients send
+        config.setUserDestinationPrefix("/user"); // per-user queues, e.g. /user/queue/alerts
+        // Keep each session's messages in publish order across the outbound thread pool; the
+        // sequence headers and the conflation in ConflatingSessionDecorator depend on it
+        config.setPreservePublishOrder(true);
+    }
+
+    // Writes go through a per-session queue (OutboundSessions), so a slow client never blocks the
+    // broker's outbound threads; the same limits apply to Spring's own session buffer as a backstop
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(outboundSessions.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(outboundSessions.getSendBufferSizeLimit())
+                .addDecoratorFactory(outboundSessions);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOrigins(frontendOrigin).withSockJS();
     }
+
+    // Public topics stay anonymous; a Bearer token on CONNECT attaches the user for /user/** delivery.
+    // A bad or expired token still connects, anonymously: failing the CONNECT would leave a client that
+    // reconnects with the same stale header without live ticks for good
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    return message;
+                }
+                String header = accessor.getFirstNativeHeader("Authorization");
+                if (header == null || !header.startsWith("Bearer ")) {
+                    return message;
+                }
+                String token = header.substring(7);
+                if (!jwtUtils.validateJwtToken(token)) {
+                    log.debug("STOMP CONNECT with an invalid or expired token; connecting anonymously");
+                    return message;
+                }
+                var authorities = jwtUtils.getRolesFromToken(token).stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+                accessor.setUser(new UsernamePasswordAuthenticationToken(jwtUtils.getUsernameFromToken(token), null, authorities));
+                return message;
+            }
+        });
+    }
 }
@@ -0,0 +1,38 @@
+package com.stockmanager.config;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@code GET /actuator/websocketsessions}: open WebSocket sessions, most lagging first, so a slow
+ * client can be identified before it is disconnected.
+ */
+@Component
+@Endpoint(id = "websocketsessions")
+@RequiredArgsConstructor
+public class WebSocketSessionsEndpoint {
+    private final OutboundSessions outboundSessions;
+
+    public record SessionLag(String id, String remoteAddress, int pendingMessages, long pendingBytes,
+                             long lagMs, long sendingMs, long sent, long conflated) {}
+
+    @ReadOperation
+    public Map<String, Object> sessions() {
+        List<SessionLag> sessions = outboundSessions.sessions().stream()
+                .map(s -> new SessionLag(s.getId(), String.valueOf(s.getRemoteAddress()), s.getPendingMessages(),
+                        s.getPendingBytes(), s.getLagMillis(), s.getSendingMillis(), s.getSent(), s.getConflated()))
+                .sorted(Comparator.comparingLong(SessionLag::lagMs).reversed())
+                .toList();
+        return Map.of(
+                "sendTimeLimitMs", outboundSessions.getSendTimeLimitMs(),
+                "sendBufferSizeLimit", outboundSessions.getSendBufferSizeLimit(),
+                "sessions", sessions);
+    }
+}
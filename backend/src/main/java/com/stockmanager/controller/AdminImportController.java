@@ -0,0 +1,64 @@
+package com.stockmanager.controller;
+
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stockmanager.dto.ImportStatusDto;
+import com.stockmanager.service.HistoryImportJob;
+import com.stockmanager.service.PriceHistoryImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin/imports")
+@RequiredArgsConstructor
+public class AdminImportController {
+    private final PriceHistoryImportService importService;
+
+    // Body is the raw CSV (name,timestamp,price); poll the returned location for progress
+    @PostMapping(value = "/history", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<?> importHistory(HttpServletRequest request,
+                                           @RequestParam(required = false) String source) throws IOException {
+        HistoryImportJob job = importService.submit(request.getInputStream(), source != null ? source : "upload");
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/imports/" + job.getId()))
+                .body(toDto(job));
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listAll(){
+        var list = importService.listJobs().stream().map(this::toDto).collect(Collectors.toList());
+        return ResponseEntity.ok(list);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id){
+        return ResponseEntity.ok(toDto(importService.getJob(id)));
+    }
+
+    private ImportStatusDto toDto(HistoryImportJob job){
+        ImportStatusDto dto = new ImportStatusDto();
+        dto.setId(job.getId());
+        dto.setSource(job.getSource());
+        dto.setState(job.getState().name());
+        dto.setRowsRead(job.getRowsRead().get());
+        dto.setRowsInserted(job.getRowsInserted().get());
+        dto.setRowsRejected(job.getRowsRejected().get());
+        dto.setQuotesAdvanced(job.getQuotesAdvanced().get());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setError(job.getError());
+        return dto;
+    }
+}
@@ -1,9 +1,11 @@
 package com.stockmanager.controller;
 
 
+import java.security.Principal;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,10 +20,14 @@ import org.springframework.web.bind.annotation.RestController;
 import com.stockmanager.config.JwtUtils;
 import com.stockmanager.config.Role;
 import com.stockmanager.dto.LoginRequest;
+import com.stockmanager.dto.RefreshRequest;
 import com.stockmanager.dto.RegisterRequest;
 import com.stockmanager.entity.AppUser;
+import com.stockmanager.exception.InvalidTokenException;
 import com.stockmanager.repository.AppUserRepository;
+import com.stockmanager.service.RefreshTokenService;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -33,6 +39,7 @@ public class AuthController {
     private final AppUserRepository userRepo;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final RefreshTokenService refreshTokenService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest req) {
@@ -66,6 +73,33 @@ public class AuthController {
         principal.getAuthorities().forEach(a -> roles.add(a.getAuthority()));
 
         String token = jwtUtils.generateToken(principal.getUsername(), roles);
-        return ResponseEntity.ok(Map.of("token", token));
+        String refreshToken = refreshTokenService.issue(principal.getUsername());
+        return ResponseEntity.ok(Map.of("token", token, "refreshToken", refreshToken));
+    }
+
+    // New access token for a refresh token, without a password check; the refresh token rotates
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest req) {
+        var issued = refreshTokenService.rotate(req.getRefreshToken());
+        AppUser user = userRepo.findByUsername(issued.username())
+                .orElseThrow(() -> new InvalidTokenException("User no longer exists"));
+        Set<String> roles = user.getRoles().stream().map(Role::name).collect(Collectors.toSet());
+
+        String token = jwtUtils.generateToken(user.getUsername(), roles);
+        return ResponseEntity.ok(Map.of("token", token, "refreshToken", issued.token()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshRequest req) {
+        refreshTokenService.revoke(req.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Signs the caller out everywhere; access tokens already issued run until they expire
+    @PostMapping("/revoke-all")
+    public ResponseEntity<?> revokeAll(Principal principal) {
+        if (principal == null) throw new InvalidTokenException("Authentication required");
+        int revoked = refreshTokenService.revokeAll(principal.getName());
+        return ResponseEntity.ok(Map.of("revoked", revoked));
     }
 }
\ No newline at end of file
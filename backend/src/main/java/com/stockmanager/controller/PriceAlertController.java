@@ -0,0 +1,46 @@
+package com.stockmanager.controller;
+
+
+import java.security.Principal;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stockmanager.dto.CreateAlertRequest;
+import com.stockmanager.dto.PriceAlertDto;
+import com.stockmanager.service.PriceAlertService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+public class PriceAlertController {
+    private final PriceAlertService alertService;
+
+    @GetMapping
+    public ResponseEntity<?> listMine(Principal principal){
+        var list = alertService.listForUser(principal.getName()).stream().map(PriceAlertDto::from).toList();
+        return ResponseEntity.ok(list);
+    }
+
+    // Triggered alerts are delivered once to the owner's /user/queue/alerts
+    @PostMapping
+    public ResponseEntity<?> create(@Valid @RequestBody CreateAlertRequest req, Principal principal){
+        var created = alertService.create(principal.getName(), req.getStockId(), req.getThreshold(), req.getDirection());
+        return ResponseEntity.status(201).body(PriceAlertDto.from(created));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id, Principal principal){
+        alertService.delete(id, principal.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.stockmanager.controller;
+
+
+import java.time.Instant;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stockmanager.service.StockService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/quotes")
+@RequiredArgsConstructor
+public class QuoteController {
+    private final StockService stockService;
+
+    // Point-in-time snapshot: the price each stock had at t (ISO-8601), optionally for one exchange
+    @GetMapping("/asof")
+    public ResponseEntity<?> asOf(@RequestParam Instant t,
+                                  @RequestParam(required = false) Long exchangeId){
+        return ResponseEntity.ok(stockService.getQuotesAsOf(t, exchangeId));
+    }
+}
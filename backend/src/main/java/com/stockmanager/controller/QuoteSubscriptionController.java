@@ -0,0 +1,34 @@
+package com.stockmanager.controller;
+
+
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import com.stockmanager.dto.TickReplayDto;
+import com.stockmanager.service.TickJournal;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Snapshot-on-subscribe for the quote streams. A client subscribes to the topic first, then to
+ * the matching {@code /app} destination; the reply is the current state as of {@code sequence},
+ * taken from memory, and topic messages with a {@code sequence} header at or below it are already
+ * reflected in it and can be dropped.
+ */
+@Controller
+@RequiredArgsConstructor
+public class QuoteSubscriptionController {
+    private final TickJournal journal;
+
+    // Pairs with /topic/stocks and /topic/stocks/delete
+    @SubscribeMapping("/stocks")
+    public TickReplayDto stocks(){
+        return TickReplayDto.from(journal.snapshot(), true, false);
+    }
+
+    // Pairs with /topic/exchanges and /topic/exchanges/delete
+    @SubscribeMapping("/exchanges")
+    public TickReplayDto exchanges(){
+        return TickReplayDto.from(journal.snapshot(), false, true);
+    }
+}
@@ -0,0 +1,30 @@
+package com.stockmanager.controller;
+
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stockmanager.dto.BatchCreateStocksRequest;
+import com.stockmanager.service.StockBatchService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+// Custom-method style path (/api/stocks:batch) cannot hang off StockController's /api/stocks prefix,
+// which would add a slash before ":batch"
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class StockBatchController {
+    private final StockBatchService stockBatchService;
+
+    // Created stocks in request order; broadcast as one /topic/stocks/batch message after commit
+    @PostMapping("/stocks:batch")
+    public ResponseEntity<?> create(@Valid @RequestBody BatchCreateStocksRequest req){
+        var created = stockBatchService.create(req.getStocks(), req.getExchangeId());
+        return ResponseEntity.status(201).body(created);
+    }
+}
@@ -1,11 +1,12 @@
 package com.stockmanager.controller;
 
 
+import java.math.BigDecimal;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,12 +14,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.stockmanager.config.BinaryFormatsConfig;
 import com.stockmanager.dto.CreateStockRequest;
+import com.stockmanager.dto.PriceHistoryColumnsDto;
 import com.stockmanager.dto.PriceUpdateRequest;
 import com.stockmanager.dto.StockDto;
 import com.stockmanager.entity.Stock;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.service.MoversService;
+import com.stockmanager.service.PriceUpdateDeduplicator;
+import com.stockmanager.service.ResourceVersions;
+import com.stockmanager.service.RollingStatsService;
+import com.stockmanager.service.StockJsonCache;
+import com.stockmanager.service.StockSearchService;
 import com.stockmanager.service.StockService;
 
 import jakarta.validation.Valid;
@@ -29,58 +41,115 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class StockController {
     private final StockService stockService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RollingStatsService rollingStatsService;
+    private final MoversService moversService;
+    private final ResourceVersions versions;
+    private final StockJsonCache jsonCache;
+    private final StockSearchService searchService;
+    private final PriceUpdateDeduplicator deduplicator;
 
     @GetMapping
-    public ResponseEntity<?> listAll(){
-        var list = stockService.listAll().stream().map(this::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> listAll(WebRequest request){
+        MediaType binary = BinaryFormatsConfig.preferredBinary(request.getHeader(HttpHeaders.ACCEPT));
+        // Tag taken before the query; a matching If-None-Match is answered without touching the DB
+        String etag = versions.stocksEtag();
+        if (binary != null) etag = ResourceVersions.variant(etag, binary.getSubtype());
+        if (request.checkNotModified(etag)) return null;
+        if (binary != null) {
+            var list = stockService.listAll().stream().map(this::toDto).toList();
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).contentType(binary).body(list);
+        }
+        long mark = jsonCache.mark();
+        byte[] body = jsonCache.jsonArray(stockService.listAll(), mark);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) Long exchangeId,
+                                    @RequestParam(required = false) BigDecimal minPrice,
+                                    @RequestParam(required = false) BigDecimal maxPrice,
+                                    @RequestParam(required = false) String sort,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(searchService.search(q, exchangeId, minPrice, maxPrice, sort, page, size));
+    }
+
+    // Served from the in-memory ranking; the same data streams on /topic/movers
+    @GetMapping("/movers")
+    public ResponseEntity<?> movers(@RequestParam(defaultValue = "gainers") String type,
+                                    @RequestParam(defaultValue = "20") int k){
+        MoversService.Type moverType = switch (type.toLowerCase()) {
+            case "gainers" -> MoversService.Type.GAINERS;
+            case "losers" -> MoversService.Type.LOSERS;
+            default -> throw new BusinessRuleException("type must be gainers or losers");
+        };
+        return ResponseEntity.ok(moversService.top(moverType, k));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable Long id){
-        return ResponseEntity.ok(toDto(stockService.getById(id)));
+        long mark = jsonCache.mark();
+        byte[] body = jsonCache.json(stockService.getById(id), mark);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody CreateStockRequest req){
         Stock created = stockService.create(req.getName(), req.getDescription(), req.getCurrentPrice());
-        StockDto dto = toDto(created);
-        messagingTemplate.convertAndSend("/topic/stocks", dto);
-        return ResponseEntity.status(201).body(dto);
+        return ResponseEntity.status(201).body(toDto(created));
     }
 
     @PutMapping("/{id}/price")
     public ResponseEntity<?> updatePrice(@PathVariable Long id, @Valid @RequestBody PriceUpdateRequest req){
-        var updated = stockService.updatePrice(id, req.getCurrentPrice());
-        StockDto dto = toDto(updated);
-        messagingTemplate.convertAndSend("/topic/stocks", dto);
-        return ResponseEntity.ok(dto);
+        // A repeated or overtaken feed tick is dropped before a transaction is opened; 204 either way
+        if (!deduplicator.admit(id, req.getSourceTimestamp(), req.getSourceSequence())) {
+            return ResponseEntity.noContent().build();
+        }
+        // Broadcast by the outbox relay once the update has committed
+        var updated = stockService.updatePrice(id, req.getCurrentPrice(), req.getSourceTimestamp(), req.getSourceSequence());
+        if (updated == null) return ResponseEntity.noContent().build();
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(jsonCache.serialize(updated));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id){
         stockService.delete(id);
-        messagingTemplate.convertAndSend("/topic/stocks/delete", id);
         return ResponseEntity.noContent().build();
     }
 
+    // Rows of {price, timestamp} in JSON; columns (PriceHistoryColumnsDto) with layout=columnar,
+    // and always for CBOR/Smile
     @GetMapping("/{id}/history")
-    public ResponseEntity<?> getPriceHistory(@PathVariable Long id) {
-        var history = stockService.getPriceHistory(id).stream()
+    public ResponseEntity<?> getPriceHistory(@PathVariable Long id,
+                                             @RequestParam(required = false) String layout,
+                                             WebRequest request) {
+        MediaType binary = BinaryFormatsConfig.preferredBinary(request.getHeader(HttpHeaders.ACCEPT));
+        boolean columnar = binary != null || "columnar".equals(layout);
+        String etag = versions.historyEtag(id);
+        if (binary != null) etag = ResourceVersions.variant(etag, binary.getSubtype());
+        else if (columnar) etag = ResourceVersions.variant(etag, "columnar");
+        if (request.checkNotModified(etag)) return null;
+        // Checked before the read: a replica that has not applied the tagged version yet may return older rows
+        boolean tagged = versions.historyReplicated(id);
+        var rows = stockService.getPriceHistory(id);
+        var response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (tagged) response.eTag(etag);
+        if (binary != null) return response.contentType(binary).body(PriceHistoryColumnsDto.from(id, rows));
+        if (columnar) return response.body(PriceHistoryColumnsDto.from(id, rows));
+        var history = rows.stream()
             .map(h -> Map.of("price", h.getPrice(), "timestamp", h.getTimestamp()))
             .toList();
-        return ResponseEntity.ok(history);
+        return response.body(history);
+    }
+
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<?> getStats(@PathVariable Long id) {
+        stockService.getById(id); // 404 for unknown stocks
+        return ResponseEntity.ok(rollingStatsService.getStats(id));
     }
 
     private StockDto toDto(Stock s){
-        StockDto dto = new StockDto();
-        dto.setId(s.getId());
-        dto.setName(s.getName());
-        dto.setDescription(s.getDescription());
-        dto.setCurrentPrice(s.getCurrentPrice());
-        dto.setLastUpdate(s.getLastUpdate());
-        dto.setExchangeIds(s.getExchanges().stream().map(e -> e.getId()).collect(Collectors.toList()));
-        return dto;
+        return StockDto.from(s);
     }
 }
\ No newline at end of file
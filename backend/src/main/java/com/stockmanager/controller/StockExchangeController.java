@@ -1,10 +1,14 @@
 package com.stockmanager.controller;
 
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,12 +16,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.stockmanager.config.BinaryFormatsConfig;
 import com.stockmanager.dto.AddStockRequest;
 import com.stockmanager.dto.CreateExchangeRequest;
 import com.stockmanager.dto.ExchangeDto;
 import com.stockmanager.entity.StockExchange;
+import com.stockmanager.service.CorrelationService;
+import com.stockmanager.service.ExchangeIndexService;
+import com.stockmanager.service.ResourceVersions;
 import com.stockmanager.service.StockExchangeService;
 
 import jakarta.validation.Valid;
@@ -28,12 +38,20 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class StockExchangeController {
     private final StockExchangeService exchangeService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ExchangeIndexService indexService;
+    private final CorrelationService correlationService;
+    private final ResourceVersions versions;
 
     @GetMapping
-    public ResponseEntity<?> listAll(){
+    public ResponseEntity<?> listAll(WebRequest request){
+        // Rendered by whichever converter the Accept header selects; tagged per format
+        MediaType binary = BinaryFormatsConfig.preferredBinary(request.getHeader(HttpHeaders.ACCEPT));
+        String etag = versions.exchangesEtag();
+        if (binary != null) etag = ResourceVersions.variant(etag, binary.getSubtype());
+        if (request.checkNotModified(etag)) return null;
         var list = exchangeService.listAll().stream().map(this::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+        var response = ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        return binary != null ? response.contentType(binary).body(list) : response.body(list);
     }
 
     @GetMapping("/{id}")
@@ -45,7 +63,6 @@ public class StockExchangeController {
     public ResponseEntity<?> create(@Valid @RequestBody CreateExchangeRequest req){
         StockExchange created = exchangeService.create(req.getName(), req.getDescription(), req.getLiveInMarket() != null ? req.getLiveInMarket() : false);
         ExchangeDto dto = toDto(created);
-        messagingTemplate.convertAndSend("/topic/exchanges", dto);
         return ResponseEntity.status(201).body(dto);
     }
 
@@ -53,14 +70,12 @@ public class StockExchangeController {
     public ResponseEntity<?> update(@PathVariable Long id, @RequestBody CreateExchangeRequest req){
         var updated = exchangeService.update(id, req.getName(), req.getDescription(), req.getLiveInMarket());
         ExchangeDto dto = toDto(updated);
-        messagingTemplate.convertAndSend("/topic/exchanges", dto);
         return ResponseEntity.ok(dto);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id){
         exchangeService.delete(id);
-        messagingTemplate.convertAndSend("/topic/exchanges/delete", id);
         return ResponseEntity.noContent().build();
     }
 
@@ -68,7 +83,6 @@ public class StockExchangeController {
     public ResponseEntity<?> addStock(@PathVariable Long id, @Valid @RequestBody AddStockRequest req){
         var updated = exchangeService.addStockToExchange(id, req.getStockId());
         ExchangeDto dto = toDto(updated);
-        messagingTemplate.convertAndSend("/topic/exchanges", dto);
         return ResponseEntity.ok(dto);
     }
 
@@ -76,17 +90,37 @@ public class StockExchangeController {
     public ResponseEntity<?> removeStock(@PathVariable Long id, @PathVariable Long stockId){
         var updated = exchangeService.removeStockFromExchange(id, stockId);
         ExchangeDto dto = toDto(updated);
-        messagingTemplate.convertAndSend("/topic/exchanges", dto);
         return ResponseEntity.ok(dto);
     }
 
+    @GetMapping("/{id}/index")
+    public ResponseEntity<?> getIndex(@PathVariable Long id){
+        exchangeService.getById(id); // 404 for unknown exchanges
+        return ResponseEntity.ok(indexService.getIndex(id));
+    }
+
+    @GetMapping("/{id}/index/history")
+    public ResponseEntity<?> getIndexHistory(@PathVariable Long id,
+                                             @RequestParam(required = false) Instant from,
+                                             @RequestParam(required = false) Instant to){
+        var history = indexService.getHistory(id, from, to).stream()
+            .map(h -> Map.of("timestamp", h.getTimestamp(),
+                    "equalWeighted", h.getEqualWeighted(),
+                    "priceWeighted", h.getPriceWeighted(),
+                    "constituents", h.getConstituents()))
+            .toList();
+        return ResponseEntity.ok(history);
+    }
+
+    // window and step as ISO-8601 durations (P30D, PT1M); the window ends at the latest constituent tick
+    @GetMapping("/{id}/correlation")
+    public ResponseEntity<?> getCorrelation(@PathVariable Long id,
+                                            @RequestParam(defaultValue = "P1D") Duration window,
+                                            @RequestParam(required = false) Duration step){
+        return ResponseEntity.ok(correlationService.getCorrelation(id, window, step));
+    }
+
     private ExchangeDto toDto(StockExchange ex){
-        ExchangeDto dto = new ExchangeDto();
-        dto.setId(ex.getId());
-        dto.setName(ex.getName());
-        dto.setDescription(ex.getDescription());
-        dto.setLiveInMarket(ex.isLiveInMarket());
-        dto.setStockIds(ex.getStocks().stream().map(s -> s.getId()).collect(Collectors.toList()));
-        return dto;
+        return ExchangeDto.from(ex);
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.stockmanager.controller;
+
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stockmanager.dto.TickDto;
+import com.stockmanager.dto.TickReplayDto;
+import com.stockmanager.service.TickJournal;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/ticks")
+@RequiredArgsConstructor
+public class TickController {
+    private final TickJournal journal;
+
+    // Messages published after (epoch, since), from the sequence/epoch headers of the last one seen;
+    // a full snapshot if they are no longer buffered. Without parameters, always a snapshot.
+    @GetMapping
+    public ResponseEntity<?> replay(@RequestParam(required = false) String epoch,
+                                    @RequestParam(required = false) Long since){
+        if (epoch != null && since != null) {
+            var missed = journal.since(epoch, since);
+            if (missed.isPresent()) return ResponseEntity.ok(toDto(epoch, since, missed.get()));
+        }
+        return ResponseEntity.ok(TickReplayDto.from(journal.snapshot(), true, true));
+    }
+
+    private TickReplayDto toDto(String epoch, long since, List<TickJournal.Tick> ticks){
+        TickReplayDto dto = new TickReplayDto();
+        dto.setEpoch(epoch);
+        dto.setSequence(ticks.isEmpty() ? since : ticks.get(ticks.size() - 1).sequence());
+        dto.setTicks(ticks.stream().map(TickDto::from).collect(Collectors.toList()));
+        return dto;
+    }
+}
@@ -0,0 +1,24 @@
+package com.stockmanager.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class BatchCreateStocksRequest {
+    public static final int MAX_STOCKS = 10_000;
+
+    // Optional: every created stock is also listed on this exchange
+    private Long exchangeId;
+
+    @NotEmpty
+    @Size(max = MAX_STOCKS)
+    private List<@Valid @NotNull CreateStockRequest> stocks;
+}
@@ -0,0 +1,28 @@
+package com.stockmanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Pairwise correlations of log returns sampled every {@code stepMillis} over (from, to].
+ * Row and column i of {@code correlation} belong to {@code stockIds[i]}; the covariance of i and j
+ * is {@code correlation[i][j] * volatilities[i] * volatilities[j]}.
+ */
+@Getter @Setter
+@NoArgsConstructor
+public class CorrelationMatrixDto {
+    private Long exchangeId;
+    private Instant from;
+    private Instant to;
+    private long stepMillis;
+    private int returns;            // samples per stock
+    private List<Long> stockIds;
+    private double[] volatilities;  // stddev of log returns per step
+    private float[][] correlation;
+    // Constituents with no price at the start of the window, or whose price never moved in it
+    private List<Long> excludedStockIds;
+}
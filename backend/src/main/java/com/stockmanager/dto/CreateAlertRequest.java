@@ -0,0 +1,26 @@
+package com.stockmanager.dto;
+
+
+import java.math.BigDecimal;
+
+import com.stockmanager.entity.AlertDirection;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class CreateAlertRequest {
+    @NotNull
+    private Long stockId;
+
+    @NotNull
+    @DecimalMin(value = "0.0", inclusive = false)
+    private BigDecimal threshold;
+
+    // optional: inferred from the current price when omitted
+    private AlertDirection direction;
+}
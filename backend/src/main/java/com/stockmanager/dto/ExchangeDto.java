@@ -2,6 +2,9 @@ package com.stockmanager.dto;
 
 
 import java.util.List;
+import java.util.stream.Collectors;
+
+import com.stockmanager.entity.StockExchange;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,4 +18,19 @@ public class ExchangeDto {
     private String description;
     private boolean liveInMarket;
     private List<Long> stockIds;
+
+    public static ExchangeDto from(StockExchange ex){
+        return from(ex, ex.getStocks().stream().map(s -> s.getId()).collect(Collectors.toList()));
+    }
+
+    // For when the member collection is stale, e.g. after native membership updates
+    public static ExchangeDto from(StockExchange ex, List<Long> stockIds){
+        ExchangeDto dto = new ExchangeDto();
+        dto.setId(ex.getId());
+        dto.setName(ex.getName());
+        dto.setDescription(ex.getDescription());
+        dto.setLiveInMarket(ex.isLiveInMarket());
+        dto.setStockIds(stockIds);
+        return dto;
+    }
 }
\ No newline at end of file
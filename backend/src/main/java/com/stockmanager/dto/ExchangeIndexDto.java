@@ -0,0 +1,18 @@
+package com.stockmanager.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class ExchangeIndexDto {
+    private Long exchangeId;
+    private int constituents;
+    private BigDecimal equalWeighted;
+    private BigDecimal priceWeighted;
+    private Instant timestamp;
+}
@@ -0,0 +1,22 @@
+package com.stockmanager.dto;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class ImportStatusDto {
+    private String id;
+    private String source;
+    private String state;
+    private long rowsRead;
+    private long rowsInserted;
+    private long rowsRejected;
+    private long quotesAdvanced;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.stockmanager.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class MoverDto {
+    private Long stockId;
+    private String name;
+    private BigDecimal referencePrice;
+    private BigDecimal currentPrice;
+    private BigDecimal changePercent;
+}
@@ -0,0 +1,17 @@
+package com.stockmanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class MoversDto {
+    private List<MoverDto> gainers;
+    private List<MoverDto> losers;
+    private Instant referenceTime;
+    private Instant timestamp;
+}
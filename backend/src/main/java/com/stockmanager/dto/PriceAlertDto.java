@@ -0,0 +1,34 @@
+package com.stockmanager.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.stockmanager.entity.PriceAlert;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class PriceAlertDto {
+    private Long id;
+    private Long stockId;
+    private BigDecimal threshold;
+    private String direction;
+    private Instant createdAt;
+    private Instant triggeredAt;
+    private BigDecimal triggeredPrice;
+
+    public static PriceAlertDto from(PriceAlert a){
+        PriceAlertDto dto = new PriceAlertDto();
+        dto.setId(a.getId());
+        dto.setStockId(a.getStockId());
+        dto.setThreshold(a.getThreshold());
+        dto.setDirection(a.getDirection().name());
+        dto.setCreatedAt(a.getCreatedAt());
+        dto.setTriggeredAt(a.getTriggeredAt());
+        dto.setTriggeredPrice(a.getTriggeredPrice());
+        return dto;
+    }
+}
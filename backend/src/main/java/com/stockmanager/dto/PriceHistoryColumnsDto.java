@@ -0,0 +1,33 @@
+package com.stockmanager.dto;
+
+import java.util.List;
+
+import com.stockmanager.entity.StockPriceHistory;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Column-oriented price history: prices[i] was recorded at timestamps[i] (epoch millis, ascending)
+@Getter @Setter
+@NoArgsConstructor
+public class PriceHistoryColumnsDto {
+    private Long stockId;
+    private long[] timestamps;
+    private double[] prices;
+
+    public static PriceHistoryColumnsDto from(Long stockId, List<StockPriceHistory> history){
+        PriceHistoryColumnsDto dto = new PriceHistoryColumnsDto();
+        dto.setStockId(stockId);
+        long[] timestamps = new long[history.size()];
+        double[] prices = new double[history.size()];
+        for (int i = 0; i < history.size(); i++) {
+            StockPriceHistory h = history.get(i);
+            timestamps[i] = h.getTimestamp().toEpochMilli();
+            prices[i] = h.getPrice().doubleValue();
+        }
+        dto.setTimestamps(timestamps);
+        dto.setPrices(prices);
+        return dto;
+    }
+}
@@ -2,8 +2,10 @@ package com.stockmanager.dto;
 
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,4 +17,10 @@ public class PriceUpdateRequest {
     @NotNull
     @DecimalMin(value = "0.0", inclusive = false)
     private BigDecimal currentPrice;
+
+    // Optional, from the feed: a repeated or older tick is dropped (see PriceUpdateDeduplicator)
+    private Instant sourceTimestamp;
+
+    @Min(0)
+    private Long sourceSequence;
 }
\ No newline at end of file
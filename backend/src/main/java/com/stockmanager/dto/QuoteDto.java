@@ -0,0 +1,18 @@
+package com.stockmanager.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// A stock's price as recorded in its history at timestamp
+@Getter @Setter
+@NoArgsConstructor
+public class QuoteDto {
+    private Long stockId;
+    private String name;
+    private BigDecimal price;
+    private Instant timestamp;
+}
@@ -0,0 +1,17 @@
+package com.stockmanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class QuotesAsOfDto {
+    private Instant asOf;
+    private Long exchangeId;
+    // Ordered by stockId; stocks without history at or before asOf are left out
+    private List<QuoteDto> quotes;
+}
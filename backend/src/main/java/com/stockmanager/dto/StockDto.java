@@ -3,6 +3,9 @@ package com.stockmanager.dto;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import com.stockmanager.entity.Stock;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,4 +20,15 @@ public class StockDto {
     private BigDecimal currentPrice;
     private Instant lastUpdate;
     private List<Long> exchangeIds;
+
+    public static StockDto from(Stock s){
+        StockDto dto = new StockDto();
+        dto.setId(s.getId());
+        dto.setName(s.getName());
+        dto.setDescription(s.getDescription());
+        dto.setCurrentPrice(s.getCurrentPrice());
+        dto.setLastUpdate(s.getLastUpdate());
+        dto.setExchangeIds(s.getExchanges().stream().map(e -> e.getId()).collect(Collectors.toList()));
+        return dto;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.stockmanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class StockStatsDto {
+    private Long stockId;
+    private long ticks;
+    private Double lastPrice;
+    private Instant updatedAt;
+    private List<WindowStats> windows;
+
+    @Getter @Setter
+    @NoArgsConstructor
+    public static class WindowStats {
+        private int window;   // in ticks
+        private int samples;
+        private Double sma;
+        private Double ema;
+        private Double volatility; // stddev of log returns per tick
+    }
+}
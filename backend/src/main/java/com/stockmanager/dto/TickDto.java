@@ -0,0 +1,32 @@
+package com.stockmanager.dto;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.stockmanager.service.TickJournal;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@NoArgsConstructor
+public class TickDto {
+    private long sequence;
+    private String destination;
+    private Long stockId;
+    private Long stockSequence;
+    // The message body exactly as it was broadcast
+    @JsonRawValue
+    private String payload;
+
+    public static TickDto from(TickJournal.Tick tick){
+        TickDto dto = new TickDto();
+        dto.setSequence(tick.sequence());
+        dto.setDestination(tick.destination());
+        dto.setStockId(tick.stockId());
+        dto.setStockSequence(tick.stockSequence());
+        dto.setPayload(new String(tick.payload(), StandardCharsets.UTF_8));
+        return dto;
+    }
+}
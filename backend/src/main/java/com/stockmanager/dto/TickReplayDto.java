@@ -0,0 +1,60 @@
+package com.stockmanager.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.stockmanager.service.TickJournal;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Either the missed ticks, or (snapshot = true) the current stocks and/or exchanges as of sequence
+@Getter @Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TickReplayDto {
+    private String epoch;
+    private long sequence;
+    private boolean snapshot;
+    private List<TickDto> ticks;
+    // JSON arrays of the StockDto / ExchangeDto bodies last broadcast
+    @JsonRawValue
+    private String stocks;
+    // stock id -> stock-sequence the snapshot reflects; older stock ticks are stale
+    private Map<Long, Long> stockSequences;
+    @JsonRawValue
+    private String exchanges;
+
+    public static TickReplayDto from(TickJournal.Snapshot s, boolean withStocks, boolean withExchanges){
+        TickReplayDto dto = new TickReplayDto();
+        dto.setEpoch(s.epoch());
+        dto.setSequence(s.sequence());
+        dto.setSnapshot(true);
+        if (withStocks) {
+            dto.setStocks(jsonArray(s.stocks()));
+            dto.setStockSequences(s.stocks().stream()
+                    .collect(Collectors.toMap(TickJournal.Tick::stockId, TickJournal.Tick::stockSequence)));
+        }
+        if (withExchanges) {
+            dto.setExchanges(jsonArray(s.exchanges()));
+        }
+        return dto;
+    }
+
+    private static String jsonArray(List<TickJournal.Tick> ticks){
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ticks.size() * 160 + 2);
+        out.write('[');
+        for (int i = 0; i < ticks.size(); i++) {
+            if (i > 0) out.write(',');
+            out.writeBytes(ticks.get(i).payload());
+        }
+        out.write(']');
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,6 @@
+package com.stockmanager.entity;
+
+public enum AlertDirection {
+    ABOVE,
+    BELOW
+}
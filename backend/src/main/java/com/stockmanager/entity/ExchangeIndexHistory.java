@@ -0,0 +1,36 @@
+package com.stockmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "exchange_index_history",
+        indexes = @Index(name = "idx_exchange_index_history_exchange_ts", columnList = "exchange_id, timestamp"))
+public class ExchangeIndexHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "exchange_id", nullable = false)
+    private Long exchangeId;
+
+    @Column(name = "equal_weighted", precision = 19, scale = 4, nullable = false)
+    private BigDecimal equalWeighted;
+
+    @Column(name = "price_weighted", precision = 19, scale = 4, nullable = false)
+    private BigDecimal priceWeighted;
+
+    @Column(nullable = false)
+    private int constituents;
+
+    @Column(nullable = false)
+    private Instant timestamp;
+}
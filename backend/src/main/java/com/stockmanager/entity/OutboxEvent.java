@@ -0,0 +1,45 @@
+package com.stockmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A STOMP message recorded in the transaction that caused it and published by the outbox relay
+ * once that transaction has committed. Rows are deleted after they have been sent.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    public static final int MAX_PAYLOAD_BYTES = 1_000_000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destination;
+
+    // JSON body, serialized while the entities were still in the writing transaction
+    @Column(nullable = false, length = MAX_PAYLOAD_BYTES)
+    private byte[] payload;
+
+    // set for stock events; the sequence is the stock's event_sequence after this change
+    @Column(name = "stock_id")
+    private Long stockId;
+
+    @Column(name = "stock_sequence")
+    private Long stockSequence;
+
+    // set for exchange events
+    @Column(name = "exchange_id")
+    private Long exchangeId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
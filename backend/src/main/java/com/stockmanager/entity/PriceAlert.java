@@ -0,0 +1,46 @@
+package com.stockmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "price_alert", indexes = {
+        @Index(name = "idx_price_alert_username", columnList = "username"),
+        @Index(name = "idx_price_alert_stock", columnList = "stock_id")
+})
+public class PriceAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal threshold;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private AlertDirection direction;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // null while the alert is active
+    @Column(name = "triggered_at")
+    private Instant triggeredAt;
+
+    @Column(name = "triggered_price", precision = 19, scale = 4)
+    private BigDecimal triggeredPrice;
+}
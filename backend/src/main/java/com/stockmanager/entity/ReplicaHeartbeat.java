@@ -0,0 +1,27 @@
+package com.stockmanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Single-row table the primary stamps periodically; reading it back from a replica tells how far
+ * behind that replica is. Written and read with plain JDBC by {@code ReplicaMonitor}, mapped here so
+ * the table is created with the rest of the schema.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+    @Id
+    private Integer id;
+
+    // epoch millis on the writing node
+    @Column(name = "beat_at", nullable = false)
+    private long beatAt;
+}
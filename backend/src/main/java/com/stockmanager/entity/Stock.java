@@ -6,6 +6,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -20,6 +24,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor
 @Table(name = "stock")
@@ -40,6 +46,19 @@ public class Stock {
     @Column(name = "last_update", nullable = false)
     private Instant lastUpdate;
 
+    // Bumped with every published change so subscribers can order and de-duplicate stock events
+    @Column(name = "event_sequence", nullable = false)
+    private long eventSequence;
+
+    // Highest feed timestamp/sequence applied so far, null until an update carries one (see PriceUpdateDeduplicator)
+    @Column(name = "source_timestamp")
+    private Instant sourceTimestamp;
+
+    @Column(name = "source_sequence")
+    private Long sourceSequence;
+
+    // Inverse side: Hibernate does not evict this on membership changes, SecondLevelCacheEvictor does
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(mappedBy = "stocks")
     private Set<StockExchange> exchanges = new HashSet<>();
 
@@ -3,6 +3,10 @@ package com.stockmanager.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -17,6 +21,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor
 @Table(name = "stock_exchange")
@@ -34,6 +40,7 @@ public class StockExchange {
     @Column(name = "live_in_market", nullable = false)
     private boolean liveInMarket = false;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany
     @JoinTable(name = "stock_exchange_stock",
             joinColumns = @JoinColumn(name = "exchange_id"),
@@ -11,6 +11,8 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(name = "stock_price_history",
+        indexes = @Index(name = "idx_stock_price_history_stock_ts", columnList = "stock_id, timestamp"))
 public class StockPriceHistory {
     
     @Id
@@ -0,0 +1,10 @@
+package com.stockmanager.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ExchangeDeletedEvent {
+    private final Long exchangeId;
+}
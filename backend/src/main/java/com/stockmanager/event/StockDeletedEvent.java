@@ -0,0 +1,14 @@
+package com.stockmanager.event;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StockDeletedEvent {
+    private final Long stockId;
+    // exchanges the stock was listed on before the delete
+    private final List<Long> exchangeIds;
+}
@@ -0,0 +1,16 @@
+package com.stockmanager.event;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StockMembershipChangedEvent {
+    private final Long exchangeId;
+    private final Long stockId;
+    // stock's current price when it was added; null on removal
+    private final BigDecimal price;
+    private final boolean added;
+}
@@ -0,0 +1,16 @@
+package com.stockmanager.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StockPriceChangedEvent {
+    private final Long stockId;
+    private final BigDecimal previousPrice;
+    private final BigDecimal price;
+    private final Instant timestamp;
+}
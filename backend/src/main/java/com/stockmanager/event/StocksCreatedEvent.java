@@ -0,0 +1,15 @@
+package com.stockmanager.event;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Stocks created together by one batch request, published once instead of per stock
+@Getter
+@AllArgsConstructor
+public class StocksCreatedEvent {
+    private final List<StockCreatedEvent> stocks;
+    // exchange they were all listed on; null if none
+    private final Long exchangeId;
+}
@@ -0,0 +1,45 @@
+package com.stockmanager.loadgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class LatencyReport {
+    private static final Logger log = LoggerFactory.getLogger(LatencyReport.class);
+
+    // Histogram values are in microseconds; percentile output is scaled to milliseconds
+    private static final double MICROS_PER_MS = 1000.0;
+
+    private LatencyReport() {}
+
+    static void log(Histogram h, long ticks, long errors, long dropped, long received, int seconds) {
+        log.info("Load generator finished: {} ticks ({}/s achieved), {} failed updates, {} frames received",
+                ticks, seconds > 0 ? ticks / seconds : ticks, errors, received);
+        if (dropped > 0) {
+            log.warn("{} ticks dropped: the drivers fell more than a second behind schedule, so the "
+                    + "configured rate was not offered", dropped);
+        }
+        log.info("Tick latency ms (from scheduled send): p50={} p90={} p99={} p99.9={} max={}",
+                h.getValueAtPercentile(50) / MICROS_PER_MS,
+                h.getValueAtPercentile(90) / MICROS_PER_MS,
+                h.getValueAtPercentile(99) / MICROS_PER_MS,
+                h.getValueAtPercentile(99.9) / MICROS_PER_MS,
+                h.getMaxValue() / MICROS_PER_MS);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        h.outputPercentileDistribution(new PrintStream(out, true, StandardCharsets.UTF_8), MICROS_PER_MS);
+        log.info("Latency distribution (ms):\n{}", out.toString(StandardCharsets.UTF_8));
+    }
+
+    // .hgrm output can be plotted with the HdrHistogram web plotter
+    static void write(Histogram h, String file) throws IOException {
+        try (PrintStream ps = new PrintStream(file, StandardCharsets.UTF_8)) {
+            h.outputPercentileDistribution(ps, MICROS_PER_MS);
+        }
+    }
+}
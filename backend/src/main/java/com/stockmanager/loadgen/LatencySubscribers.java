@@ -0,0 +1,120 @@
+package com.stockmanager.loadgen;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.dto.StockDto;
+
+/**
+ * K STOMP clients subscribed to {@code /topic/stocks}. Latency is measured from the tick's
+ * scheduled send time, registered by the generator through {@link #expect}, to frame receipt, in
+ * microseconds. The stock's {@code lastUpdate} is not used: it is stamped only once updatePrice
+ * runs, which hides any time the tick spent queued behind a slow server. Generator and subscribers
+ * share one JVM and {@link System#nanoTime()}, so there is no clock skew to correct for.
+ */
+class LatencySubscribers {
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String url;
+    private final int count;
+    private final WebSocketStompClient stompClient;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final AtomicLong received = new AtomicLong();
+    private final List<StompSession> sessions = new ArrayList<>();
+    // Ticks not yet seen by every subscriber; a conflated-away tick stays until the next reset()
+    private final Map<Sent, Expected> expected = new ConcurrentHashMap<>();
+
+    // A generated price identifies its tick: the generator is the only writer of these stocks
+    private record Sent(Long stockId, BigDecimal price) {
+        static Sent of(Long stockId, BigDecimal price) {
+            return new Sent(stockId, price.stripTrailingZeros());
+        }
+    }
+
+    private record Expected(long sendAtNanos, AtomicInteger remaining) {}
+
+    LatencySubscribers(String url, int count, ObjectMapper objectMapper) {
+        this.url = url;
+        this.count = count;
+        SockJsClient sockJsClient = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+        this.stompClient = new WebSocketStompClient(sockJsClient);
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        this.stompClient.setMessageConverter(converter);
+    }
+
+    void connect() throws Exception {
+        for (int i = 0; i < count; i++) {
+            StompSession session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+            session.subscribe("/topic/stocks", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return StockDto.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    long now = System.nanoTime();
+                    StockDto stock = (StockDto) payload;
+                    if (stock.getCurrentPrice() == null) return;
+                    Sent key = Sent.of(stock.getId(), stock.getCurrentPrice());
+                    Expected tick = expected.get(key);
+                    if (tick == null) return; // seeding, or sent before the last reset()
+                    long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(now - tick.sendAtNanos()));
+                    recorder.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+                    received.incrementAndGet();
+                    if (tick.remaining().decrementAndGet() == 0) expected.remove(key, tick);
+                }
+            });
+            sessions.add(session);
+        }
+    }
+
+    // Called before the tick is sent, so a fast frame cannot arrive ahead of its registration
+    void expect(Long stockId, BigDecimal price, long sendAtNanos) {
+        expected.put(Sent.of(stockId, price), new Expected(sendAtNanos, new AtomicInteger(sessions.size())));
+    }
+
+    void forget(Long stockId, BigDecimal price) {
+        expected.remove(Sent.of(stockId, price));
+    }
+
+    void reset() {
+        recorder.reset();
+        received.set(0);
+        expected.clear();
+    }
+
+    Histogram snapshot() {
+        return recorder.getIntervalHistogram();
+    }
+
+    long received() {
+        return received.get();
+    }
+
+    void disconnect() {
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+    }
+}
@@ -0,0 +1,231 @@
+package com.stockmanager.loadgen;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Capacity-planning load generator, active only under the {@code loadgen} profile.
+ * <p>
+ * Seeds the embedded database with synthetic stocks and exchanges through the regular services,
+ * connects a number of STOMP subscribers over SockJS to this same instance, then drives
+ * {@link StockService#updatePrice} with geometric Brownian motion prices at a fixed aggregate
+ * rate. Each subscriber records latency from the tick's scheduled send time to receipt, so time a
+ * tick spends waiting for a busy driver counts against the server instead of silently thinning
+ * the samples (coordinated omission). The merged HdrHistogram is logged when the run ends.
+ */
+@Component
+@Profile("loadgen")
+@RequiredArgsConstructor
+public class LoadGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    // Roughly one trading year in seconds (252 sessions of 6.5 hours), used to scale GBM steps
+    private static final double TRADING_SECONDS_PER_YEAR = 252 * 6.5 * 3600;
+    private static final long TICK_INTERVAL_MS = 10;
+
+    private final StockService stockService;
+    private final StockExchangeService exchangeService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.loadgen.stocks:500}")
+    private int stockCount;
+    @Value("${app.loadgen.exchanges:10}")
+    private int exchangeCount;
+    @Value("${app.loadgen.exchanges-per-stock:2}")
+    private int exchangesPerStock;
+    @Value("${app.loadgen.rate:1000}")
+    private int ticksPerSecond;
+    @Value("${app.loadgen.subscribers:20}")
+    private int subscriberCount;
+    @Value("${app.loadgen.duration-seconds:60}")
+    private int durationSeconds;
+    @Value("${app.loadgen.warmup-seconds:10}")
+    private int warmupSeconds;
+    @Value("${app.loadgen.driver-threads:4}")
+    private int driverThreads;
+    @Value("${app.loadgen.drift:0.05}")
+    private double drift;
+    @Value("${app.loadgen.volatility:0.3}")
+    private double volatility;
+    @Value("${app.loadgen.report-file:}")
+    private String reportFile;
+    @Value("${app.loadgen.exit-on-finish:false}")
+    private boolean exitOnFinish;
+
+    private final AtomicLong ticksSent = new AtomicLong();
+    private final AtomicLong tickErrors = new AtomicLong();
+    private final AtomicLong ticksDropped = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread runner = new Thread(this::run, "loadgen");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    private void run() {
+        try {
+            List<SimulatedStock> stocks = seed();
+            String url = "http://localhost:" + environment.getProperty("local.server.port") + "/ws";
+            LatencySubscribers subscribers = new LatencySubscribers(url, subscriberCount, objectMapper);
+            subscribers.connect();
+
+            log.info("Load generator: {} stocks, {} exchanges, {} subscribers, {} ticks/s for {}s (+{}s warm-up)",
+                    stocks.size(), exchangeCount, subscriberCount, ticksPerSecond, durationSeconds, warmupSeconds);
+
+            drive(stocks, subscribers, warmupSeconds);
+            subscribers.reset();
+            ticksSent.set(0);
+            tickErrors.set(0);
+            ticksDropped.set(0);
+            drive(stocks, subscribers, durationSeconds);
+
+            TimeUnit.SECONDS.sleep(2); // let in-flight messages reach the subscribers
+            Histogram latency = subscribers.snapshot();
+            LatencyReport.log(latency, ticksSent.get(), tickErrors.get(), ticksDropped.get(),
+                    subscribers.received(), durationSeconds);
+            if (!reportFile.isBlank()) {
+                LatencyReport.write(latency, reportFile);
+            }
+            subscribers.disconnect();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.error("Load generator failed", ex);
+        } finally {
+            if (exitOnFinish) {
+                context.close();
+            }
+        }
+    }
+
+    private List<SimulatedStock> seed() {
+        List<SimulatedStock> stocks = new ArrayList<>(stockCount);
+        for (int i = 0; i < stockCount; i++) {
+            BigDecimal price = BigDecimal.valueOf(20 + ThreadLocalRandom.current().nextDouble() * 480)
+                    .setScale(2, RoundingMode.HALF_UP);
+            Stock s = stockService.create(String.format("LOAD-%05d", i), "Load generator instrument", price);
+            stocks.add(new SimulatedStock(s.getId(), price.doubleValue()));
+        }
+
+        List<Long> exchangeIds = new ArrayList<>(exchangeCount);
+        for (int i = 0; i < exchangeCount; i++) {
+            StockExchange ex = exchangeService.create(String.format("LOADX-%03d", i), "Load generator exchange", false);
+            exchangeIds.add(ex.getId());
+        }
+        if (!exchangeIds.isEmpty()) {
+            int perStock = Math.min(exchangesPerStock, exchangeIds.size());
+            for (int i = 0; i < stocks.size(); i++) {
+                for (int j = 0; j < perStock; j++) {
+                    exchangeService.addStockToExchange(exchangeIds.get((i + j) % exchangeIds.size()), stocks.get(i).id);
+                }
+            }
+        }
+        return stocks;
+    }
+
+    /**
+     * Fires ticks in small slices every {@value #TICK_INTERVAL_MS} ms so the aggregate rate stays
+     * smooth; each slice is spread over the driver pool. A slice's send time comes from its index,
+     * not from when the clock thread got to it. The pool queues at most one second of ticks; beyond
+     * that the generator cannot keep up, and further ticks are dropped and counted rather than
+     * queued without bound.
+     */
+    private void drive(List<SimulatedStock> stocks, LatencySubscribers subscribers, int seconds)
+            throws InterruptedException {
+        if (seconds <= 0 || stocks.isEmpty()) return;
+
+        double perStockRate = (double) ticksPerSecond / stocks.size();
+        double dt = perStockRate > 0 ? (1.0 / perStockRate) / TRADING_SECONDS_PER_YEAR : 0;
+        long slicesPerSecond = 1000 / TICK_INTERVAL_MS;
+        long perSlice = ticksPerSecond / slicesPerSecond;
+        long remainder = ticksPerSecond % slicesPerSecond;
+        long sliceNanos = TimeUnit.MILLISECONDS.toNanos(TICK_INTERVAL_MS);
+        AtomicLong slice = new AtomicLong();
+
+        ThreadPoolExecutor drivers = new ThreadPoolExecutor(driverThreads, driverThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, ticksPerSecond)), r -> new Thread(r, "loadgen-driver"),
+                (tick, pool) -> ticksDropped.incrementAndGet());
+        ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "loadgen-clock"));
+        long start = System.nanoTime();
+        clock.scheduleAtFixedRate(() -> {
+            long k = slice.getAndIncrement();
+            long sendAt = start + k * sliceNanos;
+            // spread the remainder so the per-second total matches the configured rate
+            long n = perSlice + (k % slicesPerSecond < remainder ? 1 : 0);
+            for (long i = 0; i < n; i++) {
+                SimulatedStock stock = stocks.get(ThreadLocalRandom.current().nextInt(stocks.size()));
+                drivers.execute(() -> tick(stock, dt, subscribers, sendAt));
+            }
+        }, 0, TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        TimeUnit.SECONDS.sleep(seconds);
+        clock.shutdownNow();
+        clock.awaitTermination(1, TimeUnit.SECONDS);
+        drivers.shutdown();
+        drivers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void tick(SimulatedStock stock, double dt, LatencySubscribers subscribers, long sendAtNanos) {
+        BigDecimal price = BigDecimal.valueOf(stock.next(drift, volatility, dt)).setScale(4, RoundingMode.HALF_UP);
+        subscribers.expect(stock.id, price, sendAtNanos);
+        try {
+            // Same path as StockController.updatePrice; the outbox relay broadcasts the tick
+            stockService.updatePrice(stock.id, price);
+            ticksSent.incrementAndGet();
+        } catch (Exception ex) {
+            subscribers.forget(stock.id, price);
+            if (tickErrors.getAndIncrement() == 0) {
+                log.warn("Price update failed", ex);
+            }
+        }
+    }
+
+    private static final class SimulatedStock {
+        private final Long id;
+        private double price;
+
+        SimulatedStock(Long id, double price) {
+            this.id = id;
+            this.price = price;
+        }
+
+        // S(t+dt) = S(t) * exp((mu - sigma^2 / 2) dt + sigma sqrt(dt) Z)
+        synchronized double next(double mu, double sigma, double dt) {
+            double z = ThreadLocalRandom.current().nextGaussian();
+            price = price * Math.exp((mu - 0.5 * sigma * sigma) * dt + sigma * Math.sqrt(dt) * z);
+            price = Math.max(price, 0.0001);
+            return price;
+        }
+    }
+}
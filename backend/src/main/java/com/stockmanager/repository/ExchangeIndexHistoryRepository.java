@@ -0,0 +1,27 @@
+package com.stockmanager.repository;
+
+
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stockmanager.entity.ExchangeIndexHistory;
+
+import jakarta.persistence.QueryHint;
+
+public interface ExchangeIndexHistoryRepository extends JpaRepository<ExchangeIndexHistory, Long> {
+    List<ExchangeIndexHistory> findByExchangeIdOrderByTimestampAsc(Long exchangeId);
+    List<ExchangeIndexHistory> findByExchangeIdAndTimestampBetweenOrderByTimestampAsc(Long exchangeId, Instant from, Instant to);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "exchange_index_history"))
+    @Query(value = "DELETE FROM exchange_index_history WHERE exchange_id = :exchangeId", nativeQuery = true)
+    void deleteByExchangeId(Long exchangeId);
+}
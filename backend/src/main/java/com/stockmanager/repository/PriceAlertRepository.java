@@ -0,0 +1,36 @@
+package com.stockmanager.repository;
+
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stockmanager.entity.PriceAlert;
+
+import jakarta.persistence.QueryHint;
+
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+    List<PriceAlert> findByTriggeredAtIsNull();
+    List<PriceAlert> findByUsernameOrderByCreatedAtDesc(String username);
+
+    // Runs from after-commit tick listeners, so it needs a transaction of its own
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "price_alert"))
+    @Query(value = "UPDATE price_alert SET triggered_at = :at, triggered_price = :price WHERE id IN :ids AND triggered_at IS NULL", nativeQuery = true)
+    int markTriggered(List<Long> ids, Instant at, BigDecimal price);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "price_alert"))
+    @Query(value = "DELETE FROM price_alert WHERE stock_id = :stockId", nativeQuery = true)
+    void deleteByStockId(Long stockId);
+}
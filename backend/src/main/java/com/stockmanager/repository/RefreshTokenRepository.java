@@ -0,0 +1,47 @@
+package com.stockmanager.repository;
+
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stockmanager.entity.RefreshToken;
+
+import jakarta.persistence.QueryHint;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Conditional so that of two concurrent exchanges of the same token only one wins
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_token"))
+    @Query(value = "UPDATE refresh_token SET used_at = :at WHERE id = :id AND used_at IS NULL AND revoked_at IS NULL", nativeQuery = true)
+    int markUsed(Long id, Instant at);
+
+    // Commits on its own: reuse detection revokes the family and then rejects the request
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_token"))
+    @Query(value = "UPDATE refresh_token SET revoked_at = :at WHERE family_id = :familyId AND revoked_at IS NULL", nativeQuery = true)
+    int revokeFamily(String familyId, Instant at);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_token"))
+    @Query(value = "UPDATE refresh_token SET revoked_at = :at WHERE username = :username AND revoked_at IS NULL", nativeQuery = true)
+    int revokeAllForUser(String username, Instant at);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_token"))
+    @Query(value = "DELETE FROM refresh_token WHERE expires_at < :before", nativeQuery = true)
+    int deleteExpiredBefore(Instant before);
+}
@@ -4,22 +4,39 @@ package com.stockmanager.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stockmanager.entity.StockExchange;
 
+import jakarta.persistence.QueryHint;
+
 public interface StockExchangeRepository extends JpaRepository<StockExchange, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<StockExchange> findByName(String name);
 
     // Get only the exchanges associated with a specific stock
     @Query(value = "SELECT exchange_id FROM stock_exchange_stock WHERE stock_id = :stockId", nativeQuery = true)
     List<Long> findIdsByStockId(Long stockId);
 
+    @Query(value = "SELECT stock_id FROM stock_exchange_stock WHERE exchange_id = :exchangeId", nativeQuery = true)
+    List<Long> findStockIdsByExchangeId(Long exchangeId);
+
+    // Every (exchange_id, stock_id, current_price) listing, used to seed in-memory exchange state
+    @Query(value = """
+        SELECT m.exchange_id, m.stock_id, s.current_price
+        FROM stock_exchange_stock m
+        JOIN stock s ON s.id = m.stock_id
+        """, nativeQuery = true)
+    List<Object[]> findAllMembershipsWithPrice();
+
     @Modifying
     @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_exchange"))
     @Query(value = """
         UPDATE stock_exchange
         SET live_in_market = false
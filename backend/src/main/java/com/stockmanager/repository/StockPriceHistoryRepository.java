@@ -3,10 +3,41 @@ package com.stockmanager.repository;
 
 import com.stockmanager.entity.StockPriceHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface StockPriceHistoryRepository extends JpaRepository<StockPriceHistory, Long> {
     List<StockPriceHistory> findByStockIdOrderByTimestampAsc(Long stockId);
     List<StockPriceHistory> findByStockIdOrderByTimestampDesc(Long stockId);
-}
\ No newline at end of file
+
+    // (stock_id, name, price, timestamp) of each stock's last row at or before asOf, one index seek
+    // per stock on (stock_id, timestamp). Ordering by both index columns descending lets the
+    // database walk the index backwards and stop at the first row instead of sorting the range.
+    @Query(value = """
+        SELECT s.id, s.name, h.price, h.timestamp
+        FROM stock s
+        JOIN stock_price_history h ON h.id = (
+            SELECT x.id FROM stock_price_history x
+            WHERE x.stock_id = s.id AND x.timestamp <= :asOf
+            ORDER BY x.stock_id DESC, x.timestamp DESC, x.id DESC
+            FETCH FIRST 1 ROW ONLY)
+        ORDER BY s.id
+        """, nativeQuery = true)
+    List<Object[]> findQuotesAsOf(Instant asOf);
+
+    @Query(value = """
+        SELECT s.id, s.name, h.price, h.timestamp
+        FROM stock_exchange_stock m
+        JOIN stock s ON s.id = m.stock_id
+        JOIN stock_price_history h ON h.id = (
+            SELECT x.id FROM stock_price_history x
+            WHERE x.stock_id = s.id AND x.timestamp <= :asOf
+            ORDER BY x.stock_id DESC, x.timestamp DESC, x.id DESC
+            FETCH FIRST 1 ROW ONLY)
+        WHERE m.exchange_id = :exchangeId
+        ORDER BY s.id
+        """, nativeQuery = true)
+    List<Object[]> findQuotesAsOfByExchange(Instant asOf, Long exchangeId);
+}
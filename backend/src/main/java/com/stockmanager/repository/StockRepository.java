@@ -1,20 +1,51 @@
 package com.stockmanager.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stockmanager.entity.Stock;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 
 public interface StockRepository extends JpaRepository<Stock, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Stock> findByName(String name);
 
+    @Query("SELECT s.name FROM Stock s WHERE s.name IN :names")
+    List<String> findExistingNames(Collection<String> names);
+
+    // (id, sourceTimestamp, sourceSequence) of every stock that has received a sourced update
+    @Query("SELECT s.id, s.sourceTimestamp, s.sourceSequence FROM Stock s "
+            + "WHERE s.sourceTimestamp IS NOT NULL OR s.sourceSequence IS NOT NULL")
+    List<Object[]> findSourceMarks();
+
+    // Serializes writers of one stock, so its price history and event sequence follow commit order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Stock s WHERE s.id = :id")
+    Optional<Stock> findByIdForUpdate(Long id);
+
+    // Locks in id order, so two writers locking overlapping sets cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Stock s WHERE s.id IN :ids ORDER BY s.id")
+    List<Stock> findAllByIdForUpdate(Collection<Long> ids);
+
+    // Native statements name the tables they touch (query spaces) so Hibernate evicts only those
+    // second-level cache regions after commit instead of every region. The join table belongs to
+    // no entity region, so the membership collections are evicted by SecondLevelCacheEvictor.
     @Modifying
     @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_exchange_stock"))
     @Query(value = "DELETE FROM stock_exchange_stock WHERE stock_id = :stockId", nativeQuery = true)
     void removeStockFromAllExchanges(Long stockId);
 }
\ No newline at end of file
@@ -0,0 +1,340 @@
+package com.stockmanager.service;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stockmanager.dto.CorrelationMatrixDto;
+import com.stockmanager.dto.QuoteDto;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockExchangeRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Return correlation matrices for the constituents of an exchange.
+ * <p>
+ * The window ends at the most recent tick of any constituent rather than at the current time, so a
+ * matrix depends only on recorded history and stays valid until a constituent ticks or the
+ * membership changes; it is cached per (exchange, window, step) until then. Each stock's price
+ * is sampled on a common grid of {@code step} intervals, carrying the last recorded price forward,
+ * and turned into log returns. The returns are standardized once, so every correlation is a single
+ * dot product; the upper triangle of the matrix is split into square tiles that are computed in
+ * parallel on a fork-join pool.
+ */
+@Service
+public class CorrelationService {
+    private static final Logger log = LoggerFactory.getLogger(CorrelationService.class);
+    private static final int DEFAULT_STEPS = 100;
+    // Stocks per tile side: two tiles' rows of returns stay in cache while their dot products run
+    private static final int TILE = 64;
+    // Tiles per fork-join task below which it stops splitting
+    private static final int TILES_PER_TASK = 4;
+
+    // Read with plain JDBC: one window can be millions of rows, only needed as primitives
+    private static final String WINDOW_HISTORY_SQL = """
+        SELECT h.stock_id, h.price, h.timestamp
+        FROM stock_exchange_stock m
+        JOIN stock_price_history h ON h.stock_id = m.stock_id
+        WHERE m.exchange_id = ? AND h.timestamp > ? AND h.timestamp <= ?
+        ORDER BY h.stock_id, h.timestamp, h.id
+        """;
+
+    private record Key(Long exchangeId, Duration window, Duration step) {}
+
+    // Membership (exchanges version) and the sum of the constituents' history versions. Both only grow,
+    // and the sum only covers the same stocks while the membership version is unchanged
+    private record Version(long exchanges, long histories) {
+        boolean isOlderThan(Version other) {
+            return exchanges != other.exchanges ? exchanges < other.exchanges : histories < other.histories;
+        }
+    }
+
+    // A computation per version: a caller arriving after a commit never joins one that started before it
+    private record Flight(Key key, Version version) {}
+
+    private record Cached(Version version, CorrelationMatrixDto matrix) {}
+
+    private final StockExchangeRepository exchangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final StockService stockService;
+    private final ResourceVersions versions;
+    private final TransactionTemplate transaction;
+    private final ForkJoinPool pool;
+    private final int maxSteps;
+
+    private final Map<Key, Cached> cache;
+    private final SingleFlight<Flight, Cached> computations = new SingleFlight<>();
+
+    public CorrelationService(StockExchangeRepository exchangeRepository,
+                              JdbcTemplate jdbcTemplate,
+                              StockService stockService,
+                              ResourceVersions versions,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.correlation.parallelism:0}") int parallelism,
+                              @Value("${app.correlation.max-steps:10000}") int maxSteps,
+                              @Value("${app.correlation.cache-size:8}") int cacheSize) {
+        this.exchangeRepository = exchangeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.stockService = stockService;
+        this.versions = versions;
+        // Not read-only, so never the replica: the matrix is cached under versions of primary commits
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxSteps = maxSteps;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Correlations over the {@code window} up to the exchange's latest tick, sampled every
+     * {@code step} (default: a hundredth of the window).
+     */
+    public CorrelationMatrixDto getCorrelation(Long exchangeId, Duration window, Duration step) {
+        if (window == null || window.toMillis() <= 0) throw new BusinessRuleException("window must be positive");
+        if (step == null) step = Duration.ofMillis(Math.max(1, window.toMillis() / DEFAULT_STEPS));
+        if (step.toMillis() <= 0) throw new BusinessRuleException("step must be positive");
+        long steps = window.toMillis() / step.toMillis();
+        if (steps < 2) throw new BusinessRuleException("window must span at least two steps");
+        if (steps > maxSteps) throw new BusinessRuleException("window spans more than " + maxSteps + " steps");
+        if (!exchangeRepository.existsById(exchangeId)) throw new NotFoundException("Exchange not found: " + exchangeId);
+
+        Key key = new Key(exchangeId, window, step);
+        // Taken before reading history, so a cached matrix is never labelled newer than its data
+        Version version = transaction.execute(s -> version(exchangeId));
+        Cached cached = cache.get(key);
+        if (cached != null && cached.version().equals(version)) return cached.matrix();
+
+        Duration stepSize = step;
+        Cached computed = computations.load(new Flight(key, version), () -> {
+            long start = System.nanoTime();
+            CorrelationMatrixDto matrix = transaction.execute(s -> compute(exchangeId, (int) steps, stepSize.toMillis()));
+            log.debug("Correlation matrix of exchange {} ({} stocks, {} returns) computed in {} ms", exchangeId,
+                    matrix.getStockIds().size(), steps, (System.nanoTime() - start) / 1_000_000);
+            return new Cached(version, matrix);
+        });
+        // A slower computation of an older version must not replace a newer one that finished first
+        cache.merge(key, computed, (current, fresh) -> current.version().isOlderThan(fresh.version()) ? fresh : current);
+        return computed.matrix();
+    }
+
+    // Membership plus every constituent's history version
+    private Version version(Long exchangeId) {
+        long exchanges = versions.exchangesVersion();
+        List<Long> stockIds = exchangeRepository.findStockIdsByExchangeId(exchangeId);
+        return new Version(exchanges, versions.historyVersion(stockIds));
+    }
+
+    private CorrelationMatrixDto compute(Long exchangeId, int steps, long stepMillis) {
+        CorrelationMatrixDto dto = new CorrelationMatrixDto();
+        dto.setExchangeId(exchangeId);
+        dto.setStepMillis(stepMillis);
+        dto.setReturns(steps);
+
+        List<QuoteDto> latest = stockService.getQuotesAsOf(Instant.now(), exchangeId).getQuotes();
+        Instant to = latest.stream().map(QuoteDto::getTimestamp).max(Instant::compareTo).orElse(null);
+        if (to == null) {
+            dto.setStockIds(List.of());
+            dto.setVolatilities(new double[0]);
+            dto.setCorrelation(new float[0][]);
+            dto.setExcludedStockIds(List.of());
+            return dto;
+        }
+        Instant from = to.minusMillis(steps * stepMillis);
+        dto.setFrom(from);
+        dto.setTo(to);
+
+        // Grid point k is at from + k * step; each holds the last price recorded at or before it
+        List<QuoteDto> opening = stockService.getQuotesAsOf(from, exchangeId).getQuotes();
+        int n = opening.size();
+        Map<Long, Integer> rowOf = new HashMap<>(n * 2);
+        double[][] prices = new double[n][steps + 1];
+        double[] last = new double[n];
+        int[] filled = new int[n];
+        for (int i = 0; i < n; i++) {
+            QuoteDto quote = opening.get(i);
+            rowOf.put(quote.getStockId(), i);
+            last[i] = quote.getPrice().doubleValue();
+            prices[i][0] = last[i];
+            filled[i] = 1;
+        }
+        long fromMillis = from.toEpochMilli();
+        jdbcTemplate.query(WINDOW_HISTORY_SQL, (ResultSet rs) -> {
+            Integer i = rowOf.get(rs.getLong(1));
+            if (i == null) return; // no price at the start of the window
+            long offset = rs.getObject(3, OffsetDateTime.class).toInstant().toEpochMilli() - fromMillis;
+            // First grid point at or after this tick; earlier ones keep the previous price
+            int k = (int) Math.min(steps + 1, (offset + stepMillis - 1) / stepMillis);
+            fill(prices[i], filled[i], k, last[i]);
+            filled[i] = Math.max(filled[i], k);
+            last[i] = rs.getDouble(2);
+        }, exchangeId, from.atOffset(ZoneOffset.UTC), to.atOffset(ZoneOffset.UTC));
+        for (int i = 0; i < n; i++) {
+            fill(prices[i], filled[i], steps + 1, last[i]);
+        }
+
+        // Standardized returns, one stock per row of a flat array: corr(i, j) = dot(z_i, z_j)
+        double[] z = new double[n * steps];
+        double[] volatilities = new double[n];
+        List<Long> stockIds = new ArrayList<>(n);
+        Set<Long> excluded = new TreeSet<>();
+        latest.forEach(q -> excluded.add(q.getStockId()));
+        int rows = 0;
+        for (int i = 0; i < n; i++) {
+            Long stockId = opening.get(i).getStockId();
+            double sd = standardize(prices[i], z, rows * steps);
+            if (Double.isNaN(sd)) continue;
+            excluded.remove(stockId);
+            volatilities[rows++] = sd;
+            stockIds.add(stockId);
+        }
+
+        float[][] correlation = new float[rows][rows];
+        int[] tiles = tiles(rows);
+        pool.invoke(new TileTask(tiles, 0, tiles.length, z, steps, correlation));
+
+        dto.setStockIds(stockIds);
+        dto.setVolatilities(Arrays.copyOf(volatilities, rows));
+        dto.setCorrelation(correlation);
+        dto.setExcludedStockIds(new ArrayList<>(excluded));
+        return dto;
+    }
+
+    private static void fill(double[] series, int from, int to, double price) {
+        for (int k = from; k < to; k++) {
+            series[k] = price;
+        }
+    }
+
+    /**
+     * Writes the log returns of {@code prices}, centred and scaled to unit length, to
+     * {@code z[offset..]} and returns their sample standard deviation; NaN (and nothing usable
+     * written) if the series has a non-positive price or never moves.
+     */
+    private static double standardize(double[] prices, double[] z, int offset) {
+        int m = prices.length - 1;
+        double sum = 0;
+        for (int k = 0; k < m; k++) {
+            if (prices[k] <= 0 || prices[k + 1] <= 0) return Double.NaN;
+            double r = Math.log(prices[k + 1] / prices[k]);
+            z[offset + k] = r;
+            sum += r;
+        }
+        double mean = sum / m;
+        double squares = 0;
+        for (int k = 0; k < m; k++) {
+            double d = z[offset + k] - mean;
+            z[offset + k] = d;
+            squares += d * d;
+        }
+        if (squares == 0) return Double.NaN;
+        double norm = Math.sqrt(squares);
+        for (int k = 0; k < m; k++) {
+            z[offset + k] /= norm;
+        }
+        return Math.sqrt(squares / (m - 1));
+    }
+
+    // Upper-triangle tile pairs (row tile, column tile), packed as row * count + column
+    private static int[] tiles(int n) {
+        int count = (n + TILE - 1) / TILE;
+        int[] pairs = new int[count * (count + 1) / 2];
+        int p = 0;
+        for (int bi = 0; bi < count; bi++) {
+            for (int bj = bi; bj < count; bj++) {
+                pairs[p++] = bi * count + bj;
+            }
+        }
+        return pairs;
+    }
+
+    private static final class TileTask extends RecursiveAction {
+        private final int[] tiles;
+        private final int lo;
+        private final int hi;
+        private final double[] z;
+        private final int m;
+        private final float[][] out;
+
+        TileTask(int[] tiles, int lo, int hi, double[] z, int m, float[][] out) {
+            this.tiles = tiles;
+            this.lo = lo;
+            this.hi = hi;
+            this.z = z;
+            this.m = m;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > TILES_PER_TASK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new TileTask(tiles, lo, mid, z, m, out), new TileTask(tiles, mid, hi, z, m, out));
+                return;
+            }
+            int n = out.length;
+            int count = (n + TILE - 1) / TILE;
+            for (int t = lo; t < hi; t++) {
+                int rowStart = tiles[t] / count * TILE;
+                int colStart = tiles[t] % count * TILE;
+                int rowEnd = Math.min(rowStart + TILE, n);
+                int colEnd = Math.min(colStart + TILE, n);
+                for (int i = rowStart; i < rowEnd; i++) {
+                    for (int j = Math.max(colStart, i); j < colEnd; j++) {
+                        // Each (i, j) and its mirror belong to exactly one tile, so writes never overlap
+                        float c = i == j ? 1f : (float) Math.max(-1, Math.min(1, dot(i * m, j * m)));
+                        out[i][j] = c;
+                        out[j][i] = c;
+                    }
+                }
+            }
+        }
+
+        // Four accumulators break the dependency chain of a single running sum
+        private double dot(int a, int b) {
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int k = 0;
+            for (; k + 3 < m; k += 4) {
+                s0 += z[a + k] * z[b + k];
+                s1 += z[a + k + 1] * z[b + k + 1];
+                s2 += z[a + k + 2] * z[b + k + 2];
+                s3 += z[a + k + 3] * z[b + k + 3];
+            }
+            for (; k < m; k++) {
+                s0 += z[a + k] * z[b + k];
+            }
+            return (s0 + s1) + (s2 + s3);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
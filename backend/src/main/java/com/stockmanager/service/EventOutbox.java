@@ -0,0 +1,114 @@
+package com.stockmanager.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.dto.ExchangeDto;
+import com.stockmanager.dto.StockDto;
+import com.stockmanager.entity.OutboxEvent;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records the STOMP messages a change produces in the same transaction as the change, so they are
+ * published if and only if it commits, and survive a crash between commit and publish.
+ * {@link OutboxRelay} sends them once the transaction has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class EventOutbox {
+    // Payload is a JSON array of StockDto, each at stock sequence 1; see TickJournal
+    public static final String STOCKS_BATCH_TOPIC = "/topic/stocks/batch";
+
+    private final OutboxEventRepository repository;
+    private final StockJsonCache stockJsonCache;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay relay;
+
+    // Created or re-priced; the stock's exchanges must be loadable in the current transaction
+    public void stockChanged(Stock stock) {
+        append("/topic/stocks", stockJsonCache.serialize(stock), stock.getId(), stock.getEventSequence(), null);
+    }
+
+    /**
+     * Created together by one batch request: one message per {@link OutboxEvent#MAX_PAYLOAD_BYTES}
+     * of stocks instead of one per stock. Each message is a complete array, so subscribers and the
+     * journal handle the chunks independently.
+     */
+    public void stocksCreated(List<StockDto> stocks) {
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        for (StockDto stock : stocks) {
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(stock);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Could not serialize created stock " + stock.getName(), ex);
+            }
+            // Room for the separator and the closing bracket
+            if (chunk.size() > 0 && chunk.size() + json.length + 2 > OutboxEvent.MAX_PAYLOAD_BYTES) {
+                appendBatch(chunk);
+                chunk.reset();
+            }
+            chunk.write(chunk.size() == 0 ? '[' : ',');
+            chunk.writeBytes(json);
+        }
+        if (chunk.size() > 0) appendBatch(chunk);
+    }
+
+    private void appendBatch(ByteArrayOutputStream chunk) {
+        chunk.write(']');
+        append(STOCKS_BATCH_TOPIC, chunk.toByteArray(), null, null, null);
+    }
+
+    public void stockDeleted(Long stockId, long sequence) {
+        append("/topic/stocks/delete", String.valueOf(stockId).getBytes(StandardCharsets.UTF_8), stockId, sequence, null);
+    }
+
+    // Created, updated or membership changed
+    public void exchangeChanged(StockExchange exchange) {
+        exchangeChanged(ExchangeDto.from(exchange));
+    }
+
+    public void exchangeChanged(ExchangeDto exchange) {
+        try {
+            append("/topic/exchanges", objectMapper.writeValueAsBytes(exchange), null, null, exchange.getId());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize exchange " + exchange.getId(), ex);
+        }
+    }
+
+    public void exchangeDeleted(Long exchangeId) {
+        append("/topic/exchanges/delete", String.valueOf(exchangeId).getBytes(StandardCharsets.UTF_8), null, null, exchangeId);
+    }
+
+    private void append(String destination, byte[] payload, Long stockId, Long sequence, Long exchangeId) {
+        repository.save(OutboxEvent.builder()
+                .destination(destination)
+                .payload(payload)
+                .stockId(stockId)
+                .stockSequence(sequence)
+                .exchangeId(exchangeId)
+                .createdAt(Instant.now())
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,283 @@
+package com.stockmanager.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockmanager.dto.ExchangeIndexDto;
+import com.stockmanager.entity.ExchangeIndexHistory;
+import com.stockmanager.event.ExchangeDeletedEvent;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockMembershipChangedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.event.StocksCreatedEvent;
+import com.stockmanager.repository.ExchangeIndexHistoryRepository;
+import com.stockmanager.repository.StockExchangeRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Live index values per exchange, kept incrementally from constituent ticks and membership
+ * changes instead of iterating {@code StockExchange.stocks}:
+ * <ul>
+ *   <li>equal-weighted: a level starting at 100 that moves by the average constituent return,
+ *       {@code level *= 1 + r / n}, so one tick costs O(1) per exchange it is listed on;</li>
+ *   <li>price-weighted: {@code sum(prices) / divisor}; the divisor is re-based on membership
+ *       changes so adding or removing a constituent does not move the index.</li>
+ * </ul>
+ * Changes only mark an exchange dirty; a scheduled task publishes each dirty exchange once per
+ * interval to {@code /topic/exchanges/{id}/index} and appends it to the index history.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExchangeIndexService {
+    private static final BigDecimal BASE_LEVEL = BigDecimal.valueOf(100);
+
+    private final StockExchangeRepository exchangeRepository;
+    private final ExchangeIndexHistoryRepository historyRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<Long, IndexState> indexes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> exchangesByStock = new ConcurrentHashMap<>();
+    private final Map<Long, Double> prices = new ConcurrentHashMap<>();
+    // ticks share the read side; membership changes take the write side so sums never see half a change
+    private final ReadWriteLock membershipLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        membershipLock.writeLock().lock();
+        try {
+            for (Object[] row : exchangeRepository.findAllMembershipsWithPrice()) {
+                Long exchangeId = ((Number) row[0]).longValue();
+                Long stockId = ((Number) row[1]).longValue();
+                double price = ((Number) row[2]).doubleValue();
+                prices.put(stockId, price);
+                exchangesByStock.computeIfAbsent(stockId, k -> ConcurrentHashMap.newKeySet()).add(exchangeId);
+                indexes.computeIfAbsent(exchangeId, k -> new IndexState()).seed(price);
+            }
+            indexes.values().forEach(IndexState::rebase);
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        membershipLock.readLock().lock();
+        try {
+            Set<Long> exchangeIds = exchangesByStock.get(event.getStockId());
+            if (exchangeIds == null) return;
+            double price = event.getPrice().doubleValue();
+            Double previous = prices.put(event.getStockId(), price);
+            if (previous == null) return;
+            for (Long exchangeId : exchangeIds) {
+                IndexState state = indexes.get(exchangeId);
+                if (state != null) state.onTick(previous, price);
+            }
+        } finally {
+            membershipLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(StockMembershipChangedEvent event) {
+        membershipLock.writeLock().lock();
+        try {
+            if (event.isAdded()) {
+                addConstituent(event.getExchangeId(), event.getStockId(), event.getPrice());
+            } else {
+                removeConstituent(event.getExchangeId(), event.getStockId());
+            }
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStocksCreated(StocksCreatedEvent event) {
+        if (event.getExchangeId() == null) return;
+        membershipLock.writeLock().lock();
+        try {
+            for (StockCreatedEvent created : event.getStocks()) {
+                addConstituent(event.getExchangeId(), created.getStockId(), created.getPrice());
+            }
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        membershipLock.writeLock().lock();
+        try {
+            for (Long exchangeId : event.getExchangeIds()) {
+                removeConstituent(exchangeId, event.getStockId());
+            }
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+    }
+
+    // Synchronous so the history rows go in the same transaction as the exchange delete
+    @EventListener
+    public void deleteHistory(ExchangeDeletedEvent event) {
+        historyRepository.deleteByExchangeId(event.getExchangeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExchangeDeleted(ExchangeDeletedEvent event) {
+        membershipLock.writeLock().lock();
+        try {
+            indexes.remove(event.getExchangeId());
+            exchangesByStock.forEach((stockId, exchangeIds) -> exchangeIds.remove(event.getExchangeId()));
+            exchangesByStock.values().removeIf(Set::isEmpty);
+            prices.keySet().retainAll(exchangesByStock.keySet());
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the membership write lock
+    private void addConstituent(Long exchangeId, Long stockId, BigDecimal listedPrice) {
+        double price = prices.computeIfAbsent(stockId, k -> listedPrice.doubleValue());
+        exchangesByStock.computeIfAbsent(stockId, k -> ConcurrentHashMap.newKeySet()).add(exchangeId);
+        indexes.computeIfAbsent(exchangeId, k -> new IndexState()).add(price);
+    }
+
+    private void removeConstituent(Long exchangeId, Long stockId) {
+        Set<Long> exchangeIds = exchangesByStock.get(stockId);
+        if (exchangeIds == null || !exchangeIds.remove(exchangeId)) return;
+        Double price = exchangeIds.isEmpty() ? prices.remove(stockId) : prices.get(stockId);
+        if (exchangeIds.isEmpty()) exchangesByStock.remove(stockId);
+        IndexState state = indexes.get(exchangeId);
+        if (state != null && price != null) state.remove(price);
+    }
+
+    public ExchangeIndexDto getIndex(Long exchangeId) {
+        IndexState state = indexes.get(exchangeId);
+        return state != null ? state.snapshot(exchangeId) : new IndexState().snapshot(exchangeId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExchangeIndexHistory> getHistory(Long exchangeId, Instant from, Instant to) {
+        if (from == null && to == null) {
+            return historyRepository.findByExchangeIdOrderByTimestampAsc(exchangeId);
+        }
+        return historyRepository.findByExchangeIdAndTimestampBetweenOrderByTimestampAsc(
+                exchangeId, from != null ? from : Instant.EPOCH, to != null ? to : Instant.now());
+    }
+
+    /**
+     * Conflation point: however many ticks hit an exchange within the interval, subscribers get one
+     * message and the history gets one row.
+     */
+    @Scheduled(fixedDelayString = "${app.index.publish-interval-ms:1000}")
+    public void publishDirty() {
+        List<ExchangeIndexHistory> rows = new ArrayList<>();
+        indexes.forEach((exchangeId, state) -> {
+            ExchangeIndexDto dto = state.takeIfDirty(exchangeId);
+            if (dto == null) return;
+            messagingTemplate.convertAndSend("/topic/exchanges/" + exchangeId + "/index", dto);
+            rows.add(ExchangeIndexHistory.builder()
+                    .exchangeId(exchangeId)
+                    .constituents(dto.getConstituents())
+                    .equalWeighted(dto.getEqualWeighted())
+                    .priceWeighted(dto.getPriceWeighted())
+                    .timestamp(dto.getTimestamp())
+                    .build());
+        });
+        if (!rows.isEmpty()) {
+            historyRepository.saveAll(rows);
+        }
+    }
+
+    static final class IndexState {
+        private int constituents;
+        private double equalWeighted = BASE_LEVEL.doubleValue();
+        private double priceSum;
+        private double divisor;
+        private boolean dirty = true;
+        private Instant updatedAt = Instant.now();
+
+        // startup only: accumulate without re-basing per constituent
+        synchronized void seed(double price) {
+            constituents++;
+            priceSum += price;
+        }
+
+        synchronized void rebase() {
+            divisor = constituents;
+        }
+
+        synchronized void onTick(double previous, double price) {
+            if (constituents == 0) return;
+            if (previous > 0) {
+                equalWeighted *= 1 + (price / previous - 1) / constituents;
+            }
+            priceSum += price - previous;
+            touch();
+        }
+
+        synchronized void add(double price) {
+            double current = priceWeighted();
+            constituents++;
+            priceSum += price;
+            divisor = current > 0 ? priceSum / current : constituents;
+            touch();
+        }
+
+        synchronized void remove(double price) {
+            double current = priceWeighted();
+            constituents--;
+            priceSum -= price;
+            if (constituents == 0) {
+                priceSum = 0;
+                divisor = 0;
+            } else {
+                divisor = current > 0 ? priceSum / current : constituents;
+            }
+            touch();
+        }
+
+        synchronized ExchangeIndexDto takeIfDirty(Long exchangeId) {
+            if (!dirty) return null;
+            dirty = false;
+            return snapshot(exchangeId);
+        }
+
+        synchronized ExchangeIndexDto snapshot(Long exchangeId) {
+            ExchangeIndexDto dto = new ExchangeIndexDto();
+            dto.setExchangeId(exchangeId);
+            dto.setConstituents(constituents);
+            dto.setEqualWeighted(BigDecimal.valueOf(equalWeighted).setScale(4, RoundingMode.HALF_UP));
+            dto.setPriceWeighted(BigDecimal.valueOf(priceWeighted()).setScale(4, RoundingMode.HALF_UP));
+            dto.setTimestamp(updatedAt);
+            return dto;
+        }
+
+        private double priceWeighted() {
+            return divisor > 0 ? priceSum / divisor : 0;
+        }
+
+        private void touch() {
+            dirty = true;
+            updatedAt = Instant.now();
+        }
+    }
+}
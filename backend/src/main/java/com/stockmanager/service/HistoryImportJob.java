@@ -0,0 +1,43 @@
+package com.stockmanager.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+@Getter
+public class HistoryImportJob {
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String source;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong quotesAdvanced = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    HistoryImportJob(String id, String source) {
+        this.id = id;
+        this.source = source;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    void fail(Exception ex) {
+        finishedAt = Instant.now();
+        error = ex.getMessage();
+        state = State.FAILED;
+    }
+}
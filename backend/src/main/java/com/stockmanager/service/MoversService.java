@@ -0,0 +1,178 @@
+package com.stockmanager.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockmanager.dto.MoverDto;
+import com.stockmanager.dto.MoversDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.event.StocksCreatedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.repository.StockRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Percentage-move leaderboard against a per-stock reference price (the session open). Entries
+ * live in a skip list ordered by change, so a tick repositions one stock in O(log n) and the top
+ * or bottom k are read straight off either end. Reference prices are taken at startup and reset
+ * on the session-open schedule.
+ */
+@Service
+public class MoversService {
+    public enum Type { GAINERS, LOSERS }
+
+    private static final Comparator<Mover> BY_CHANGE =
+            Comparator.comparingDouble(Mover::change).thenComparing(Mover::stockId);
+
+    private final StockRepository stockRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int publishSize;
+
+    private final Map<Long, Mover> movers = new ConcurrentHashMap<>();
+    private final NavigableSet<Mover> ranking = new ConcurrentSkipListSet<>(BY_CHANGE);
+    private final AtomicLong version = new AtomicLong();
+    private volatile long publishedVersion = -1;
+    private volatile Instant referenceTime = Instant.now();
+
+    public MoversService(StockRepository stockRepository,
+                         SimpMessagingTemplate messagingTemplate,
+                         @Value("${app.movers.publish-size:20}") int publishSize) {
+        this.stockRepository = stockRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.publishSize = publishSize;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Stock s : stockRepository.findAll()) {
+            double price = s.getCurrentPrice().doubleValue();
+            reposition(s.getId(), new Mover(s.getId(), s.getName(), price, price));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCreated(StockCreatedEvent event) {
+        double price = event.getPrice().doubleValue();
+        reposition(event.getStockId(), new Mover(event.getStockId(), event.getName(), price, price));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStocksCreated(StocksCreatedEvent event) {
+        event.getStocks().forEach(this::onStockCreated);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        double price = event.getPrice().doubleValue();
+        movers.compute(event.getStockId(), (id, old) -> {
+            if (old == null) return null; // unknown here (e.g. deleted concurrently)
+            Mover updated = new Mover(id, old.name(), old.reference(), price);
+            ranking.remove(old);
+            ranking.add(updated);
+            return updated;
+        });
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        movers.computeIfPresent(event.getStockId(), (id, old) -> {
+            ranking.remove(old);
+            return null;
+        });
+        version.incrementAndGet();
+    }
+
+    // The current price becomes the new reference for every stock
+    @Scheduled(cron = "${app.movers.session-open-cron:0 30 9 * * MON-FRI}", zone = "${app.movers.session-zone:America/New_York}")
+    public void resetReference() {
+        for (Long stockId : movers.keySet()) {
+            movers.computeIfPresent(stockId, (id, old) -> {
+                Mover rebased = new Mover(id, old.name(), old.current(), old.current());
+                ranking.remove(old);
+                ranking.add(rebased);
+                return rebased;
+            });
+        }
+        referenceTime = Instant.now();
+        version.incrementAndGet();
+    }
+
+    public List<MoverDto> top(Type type, int k) {
+        if (k < 1 || k > 100) {
+            throw new BusinessRuleException("k must be between 1 and 100");
+        }
+        Iterator<Mover> it = type == Type.GAINERS ? ranking.descendingIterator() : ranking.iterator();
+        List<MoverDto> result = new ArrayList<>(k);
+        while (it.hasNext() && result.size() < k) {
+            Mover m = it.next();
+            // flat or opposite-direction stocks are not movers of this kind
+            if (type == Type.GAINERS ? m.change() <= 0 : m.change() >= 0) break;
+            result.add(m.toDto());
+        }
+        return result;
+    }
+
+    public MoversDto snapshot(int k) {
+        MoversDto dto = new MoversDto();
+        dto.setGainers(top(Type.GAINERS, k));
+        dto.setLosers(top(Type.LOSERS, k));
+        dto.setReferenceTime(referenceTime);
+        dto.setTimestamp(Instant.now());
+        return dto;
+    }
+
+    // Conflated: at most one /topic/movers message per interval, and none when nothing moved
+    @Scheduled(fixedDelayString = "${app.movers.publish-interval-ms:1000}")
+    public void publish() {
+        long current = version.get();
+        if (current == publishedVersion) return;
+        publishedVersion = current;
+        messagingTemplate.convertAndSend("/topic/movers", snapshot(publishSize));
+    }
+
+    private void reposition(Long stockId, Mover mover) {
+        movers.compute(stockId, (id, old) -> {
+            if (old != null) ranking.remove(old);
+            ranking.add(mover);
+            return mover;
+        });
+        version.incrementAndGet();
+    }
+
+    record Mover(Long stockId, String name, double reference, double current) {
+        double change() {
+            return reference > 0 ? (current - reference) / reference * 100 : 0;
+        }
+
+        MoverDto toDto() {
+            MoverDto dto = new MoverDto();
+            dto.setStockId(stockId);
+            dto.setName(name);
+            dto.setReferencePrice(BigDecimal.valueOf(reference));
+            dto.setCurrentPrice(BigDecimal.valueOf(current));
+            dto.setChangePercent(BigDecimal.valueOf(change()).setScale(4, RoundingMode.HALF_UP));
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.stockmanager.service;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.stockmanager.entity.OutboxEvent;
+import com.stockmanager.repository.OutboxEventRepository;
+
+/**
+ * The single publisher of outbox rows. A dedicated thread drains committed rows oldest first in
+ * batches, sends them to the broker and deletes them; committing writers wake it up, and it also
+ * polls so rows left behind by a crash or a failed send are picked up.
+ * <p>
+ * Delivery is at least once: a crash between send and delete re-sends that batch after restart.
+ * Writers of a stock are serialized by a row lock, so one stock's events always reach subscribers
+ * in commit order with increasing {@code stock-sequence} headers; subscribers can drop anything at
+ * or below the last sequence they saw.
+ * <p>
+ * There is no stronger order across stocks. Row ids are assigned when a row is inserted, not when
+ * it commits, so a long transaction can commit a lower id after a higher one has been published;
+ * the relay does not wait on such gaps (rolled-back inserts leave permanent ones) and publishes the
+ * row on a later pass. Across stocks, messages go out in the order their rows became visible to the
+ * relay, and in id order within one pass.
+ * <p>
+ * Every message also carries a {@code sequence} that is gap-free across all destinations within an
+ * {@code epoch} (one process lifetime), recorded in the {@link TickJournal} so clients can replay
+ * what they missed; a re-sent row gets a new one.
+ */
+@Component
+public class OutboxRelay implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final String STOCK_ID_HEADER = "stock-id";
+    public static final String STOCK_SEQUENCE_HEADER = "stock-sequence";
+    public static final String SEQUENCE_HEADER = "sequence";
+    public static final String EPOCH_HEADER = "epoch";
+
+    private final OutboxEventRepository repository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TickJournal journal;
+    private final int batchSize;
+    private final long pollIntervalMs;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile Thread thread;
+
+    public OutboxRelay(OutboxEventRepository repository,
+                       SimpMessagingTemplate messagingTemplate,
+                       TickJournal journal,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.repository = repository;
+        this.messagingTemplate = messagingTemplate;
+        this.journal = journal;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    /**
+     * Sends and deletes up to one batch of rows.
+     *
+     * @return the number of rows published
+     */
+    public int drainBatch() {
+        List<OutboxEvent> batch = repository.findOldest(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+        for (OutboxEvent event : batch) {
+            messagingTemplate.send(event.getDestination(), message(journal.record(event), journal.epoch()));
+        }
+        repository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        return batch.size();
+    }
+
+    private void run() {
+        while (thread == Thread.currentThread()) {
+            try {
+                while (drainBatch() == batchSize) {
+                    // full batch: more may be waiting
+                }
+                wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                // one pass covers every commit signalled so far
+                wakeUps.drainPermits();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Outbox relay failed; retrying in {} ms", pollIntervalMs, ex);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    static Message<byte[]> message(TickJournal.Tick tick, String epoch) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setNativeHeader(SEQUENCE_HEADER, Long.toString(tick.sequence()));
+        accessor.setNativeHeader(EPOCH_HEADER, epoch);
+        if (tick.stockId() != null) {
+            accessor.setNativeHeader(STOCK_ID_HEADER, tick.stockId().toString());
+            accessor.setNativeHeader(STOCK_SEQUENCE_HEADER, tick.stockSequence().toString());
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(tick.payload(), accessor.getMessageHeaders());
+    }
+
+    @Override
+    public void start() {
+        Thread t = new Thread(this::run, "outbox-relay");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t != null) t.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+}
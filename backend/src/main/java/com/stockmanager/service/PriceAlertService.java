@@ -0,0 +1,182 @@
+package com.stockmanager.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.stockmanager.dto.PriceAlertDto;
+import com.stockmanager.entity.AlertDirection;
+import com.stockmanager.entity.PriceAlert;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.PriceAlertRepository;
+import com.stockmanager.repository.StockRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One-shot price alerts. Active alerts are indexed per stock in two threshold-sorted maps, one
+ * for alerts waiting for the price to rise to a level and one for alerts waiting for it to fall,
+ * so a tick only visits the alerts it actually crossed: O(log n + k) via head/tail views.
+ * Triggered alerts are removed from the index, marked in the database and delivered to the
+ * owner's {@code /user/queue/alerts}.
+ */
+@Service
+@RequiredArgsConstructor
+public class PriceAlertService {
+    private final PriceAlertRepository alertRepository;
+    private final StockRepository stockRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<Long, StockAlerts> alertsByStock = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        for (PriceAlert alert : alertRepository.findByTriggeredAtIsNull()) {
+            index(alert);
+        }
+    }
+
+    public List<PriceAlert> listForUser(String username) {
+        return alertRepository.findByUsernameOrderByCreatedAtDesc(username);
+    }
+
+    @Transactional
+    public PriceAlert create(String username, Long stockId, BigDecimal threshold, AlertDirection direction) {
+        Stock stock = stockRepository.findById(stockId)
+                .orElseThrow(() -> new NotFoundException("Stock not found: " + stockId));
+        BigDecimal current = stock.getCurrentPrice();
+        if (direction == null) {
+            direction = threshold.compareTo(current) > 0 ? AlertDirection.ABOVE : AlertDirection.BELOW;
+        }
+        boolean alreadyCrossed = direction == AlertDirection.ABOVE
+                ? current.compareTo(threshold) >= 0
+                : current.compareTo(threshold) <= 0;
+        if (alreadyCrossed) {
+            throw new BusinessRuleException("Threshold already crossed: current price is " + current);
+        }
+
+        PriceAlert alert = alertRepository.save(PriceAlert.builder()
+                .username(username)
+                .stockId(stockId)
+                .threshold(threshold)
+                .direction(direction)
+                .createdAt(Instant.now())
+                .build());
+        afterCommit(() -> index(alert));
+        return alert;
+    }
+
+    @Transactional
+    public void delete(Long alertId, String username) {
+        PriceAlert alert = alertRepository.findById(alertId)
+                .filter(a -> a.getUsername().equals(username))
+                .orElseThrow(() -> new NotFoundException("Alert not found: " + alertId));
+        alertRepository.delete(alert);
+        afterCommit(() -> {
+            StockAlerts alerts = alertsByStock.get(alert.getStockId());
+            if (alerts != null) alerts.remove(alert);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        StockAlerts alerts = alertsByStock.get(event.getStockId());
+        if (alerts == null) return;
+        List<PriceAlert> crossed = alerts.takeCrossed(event.getPrice());
+        if (crossed.isEmpty()) return;
+
+        Instant now = Instant.now();
+        alertRepository.markTriggered(crossed.stream().map(PriceAlert::getId).toList(), now, event.getPrice());
+        for (PriceAlert alert : crossed) {
+            alert.setTriggeredAt(now);
+            alert.setTriggeredPrice(event.getPrice());
+            messagingTemplate.convertAndSendToUser(alert.getUsername(), "/queue/alerts", PriceAlertDto.from(alert));
+        }
+    }
+
+    // Synchronous so the rows go with the stock in the same transaction
+    @EventListener
+    public void deleteAlertsForStock(StockDeletedEvent event) {
+        alertRepository.deleteByStockId(event.getStockId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        alertsByStock.remove(event.getStockId());
+    }
+
+    private void index(PriceAlert alert) {
+        alertsByStock.computeIfAbsent(alert.getStockId(), id -> new StockAlerts()).add(alert);
+    }
+
+    // The index follows committed rows only: a rolled-back create must not fire, a rolled-back delete must
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    static final class StockAlerts {
+        // fire when price >= threshold
+        private final NavigableMap<BigDecimal, List<PriceAlert>> above = new TreeMap<>();
+        // fire when price <= threshold
+        private final NavigableMap<BigDecimal, List<PriceAlert>> below = new TreeMap<>();
+
+        synchronized void add(PriceAlert alert) {
+            side(alert.getDirection()).computeIfAbsent(alert.getThreshold(), t -> new ArrayList<>(1)).add(alert);
+        }
+
+        synchronized void remove(PriceAlert alert) {
+            NavigableMap<BigDecimal, List<PriceAlert>> side = side(alert.getDirection());
+            List<PriceAlert> atLevel = side.get(alert.getThreshold());
+            if (atLevel == null) return;
+            atLevel.removeIf(a -> a.getId().equals(alert.getId()));
+            if (atLevel.isEmpty()) side.remove(alert.getThreshold());
+        }
+
+        synchronized List<PriceAlert> takeCrossed(BigDecimal price) {
+            List<PriceAlert> crossed = new ArrayList<>();
+            drain(above.headMap(price, true), crossed);
+            drain(below.tailMap(price, true), crossed);
+            return crossed;
+        }
+
+        private static void drain(NavigableMap<BigDecimal, List<PriceAlert>> view, List<PriceAlert> into) {
+            Iterator<List<PriceAlert>> it = view.values().iterator();
+            while (it.hasNext()) {
+                into.addAll(it.next());
+                it.remove();
+            }
+        }
+
+        private NavigableMap<BigDecimal, List<PriceAlert>> side(AlertDirection direction) {
+            return direction == AlertDirection.ABOVE ? above : below;
+        }
+    }
+}
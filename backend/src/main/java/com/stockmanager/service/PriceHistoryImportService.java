@@ -0,0 +1,280 @@
+package com.stockmanager.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.stockmanager.entity.Stock;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Backfills stock_price_history from vendor CSV files of the form {@code name,timestamp,price}.
+ * Lines are parsed and inserted in parallel chunks with batched JDBC, bypassing the per-tick
+ * {@link StockService#updatePrice} path. A stock's current price is only moved forward when the
+ * newest imported tick is more recent than its last_update, and that move is then published like
+ * any other price change (see {@link StockService#advanceToImported}).
+ */
+@Service
+public class PriceHistoryImportService {
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryImportService.class);
+
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO stock_price_history (stock_id, price, timestamp) VALUES (?, ?, ?)";
+
+    private static final long PROGRESS_LOG_ROWS = 100_000;
+
+    private final StockRepository stockRepository;
+    private final StockService stockService;
+    private final ResourceVersions versions;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int chunkLines;
+    private final int parallelism;
+    private final long jobRetentionMs;
+
+    // Finished jobs are dropped jobRetentionMs after they end (see pruneFinishedJobs)
+    private final Map<String, HistoryImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "history-import"));
+    private final ExecutorService workers;
+
+    public PriceHistoryImportService(StockRepository stockRepository,
+                                     StockService stockService,
+                                     ResourceVersions versions,
+                                     JdbcTemplate jdbcTemplate,
+                                     @Value("${app.import.batch-size:1000}") int batchSize,
+                                     @Value("${app.import.chunk-lines:10000}") int chunkLines,
+                                     @Value("${app.import.parallelism:0}") int parallelism,
+                                     @Value("${app.import.job-retention-ms:3600000}") long jobRetentionMs) {
+        this.stockRepository = stockRepository;
+        this.stockService = stockService;
+        this.versions = versions;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.chunkLines = chunkLines;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.jobRetentionMs = jobRetentionMs;
+        this.workers = Executors.newFixedThreadPool(this.parallelism, r -> new Thread(r, "history-import-worker"));
+    }
+
+    /**
+     * Spools the upload to a temporary file and schedules the import, so the caller can poll
+     * {@link #getJob(String)} for progress instead of holding the request open.
+     */
+    public HistoryImportJob submit(InputStream csv, String sourceName) throws IOException {
+        Path spool = Files.createTempFile("history-import-", ".csv");
+        Files.copy(csv, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        HistoryImportJob job = new HistoryImportJob(UUID.randomUUID().toString(), sourceName);
+        pruneFinishedJobs();
+        jobs.put(job.getId(), job);
+        jobExecutor.submit(() -> run(job, spool));
+        return job;
+    }
+
+    public HistoryImportJob getJob(String id) {
+        HistoryImportJob job = jobs.get(id);
+        if (job == null) throw new NotFoundException("Import job not found: " + id);
+        return job;
+    }
+
+    public Collection<HistoryImportJob> listJobs() {
+        pruneFinishedJobs();
+        return jobs.values();
+    }
+
+    // Queued and running jobs stay however old they are; only their outcome expires
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minusMillis(jobRetentionMs);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && !job.getFinishedAt().isAfter(cutoff));
+    }
+
+    void run(HistoryImportJob job, Path spool) {
+        job.start();
+        log.info("History import {} started from {}", job.getId(), job.getSource());
+        try {
+            StockNameResolver resolver = new StockNameResolver();
+            Map<Long, Tick> latest = new ConcurrentHashMap<>();
+            Semaphore inFlight = new Semaphore(parallelism * 2);
+            List<Future<?>> pending = new ArrayList<>();
+
+            try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                List<String> chunk = new ArrayList<>(chunkLines);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    chunk.add(line);
+                    if (chunk.size() == chunkLines) {
+                        pending.add(submitChunk(chunk, job, resolver, latest, inFlight));
+                        chunk = new ArrayList<>(chunkLines);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pending.add(submitChunk(chunk, job, resolver, latest, inFlight));
+                }
+            }
+            for (Future<?> f : pending) {
+                f.get();
+            }
+
+            advanceQuotes(latest, job);
+            latest.keySet().forEach(versions::historyChanged);
+            job.complete();
+            log.info("History import {} finished: {} rows inserted, {} rejected, {} current prices advanced",
+                    job.getId(), job.getRowsInserted(), job.getRowsRejected(), job.getQuotesAdvanced());
+        } catch (Exception ex) {
+            job.fail(ex);
+            log.error("History import {} failed", job.getId(), ex);
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException ignored) {
+                // temp file is cleaned up by the OS eventually
+            }
+        }
+    }
+
+    // One transaction per batch-size stocks
+    private void advanceQuotes(Map<Long, Tick> latest, HistoryImportJob job) {
+        List<Long> stockIds = new ArrayList<>(latest.keySet());
+        for (int from = 0; from < stockIds.size(); from += batchSize) {
+            Map<Long, StockService.ImportedQuote> quotes = new HashMap<>();
+            for (Long stockId : stockIds.subList(from, Math.min(from + batchSize, stockIds.size()))) {
+                Tick tick = latest.get(stockId);
+                quotes.put(stockId, new StockService.ImportedQuote(tick.price(), tick.timestamp()));
+            }
+            // Caches, search and subscribers follow from the price events advanceToImported publishes
+            job.getQuotesAdvanced().addAndGet(stockService.advanceToImported(quotes).size());
+        }
+    }
+
+    private Future<?> submitChunk(List<String> lines, HistoryImportJob job, StockNameResolver resolver,
+                                  Map<Long, Tick> latest, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire(); // bound memory: the reader must not outrun the inserters
+        return workers.submit(() -> {
+            try {
+                importChunk(lines, job, resolver, latest);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void importChunk(List<String> lines, HistoryImportJob job, StockNameResolver resolver, Map<Long, Tick> latest) {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (String line : lines) {
+            job.getRowsRead().incrementAndGet();
+            Tick tick = parse(line, resolver);
+            if (tick == null) {
+                job.getRowsRejected().incrementAndGet();
+                continue;
+            }
+            latest.merge(tick.stockId(), tick, (a, b) -> a.timestamp().isAfter(b.timestamp()) ? a : b);
+            batch.add(new Object[]{tick.stockId(), tick.price(), Timestamp.from(tick.timestamp())});
+            if (batch.size() == batchSize) {
+                flush(batch, job);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) flush(batch, job);
+    }
+
+    private void flush(List<Object[]> batch, HistoryImportJob job) {
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, batch);
+        long inserted = job.getRowsInserted().addAndGet(batch.size());
+        if ((inserted - batch.size()) / PROGRESS_LOG_ROWS != inserted / PROGRESS_LOG_ROWS) {
+            log.info("History import {}: {} rows inserted", job.getId(), inserted);
+        }
+    }
+
+    /**
+     * Parses {@code name,timestamp,price}. The name is everything before the last two commas so
+     * names containing commas survive without a full CSV parser. Header and malformed lines
+     * return null.
+     */
+    private Tick parse(String line, StockNameResolver resolver) {
+        int priceSep = line.lastIndexOf(',');
+        int tsSep = priceSep > 0 ? line.lastIndexOf(',', priceSep - 1) : -1;
+        if (tsSep <= 0) return null;
+
+        String name = unquote(line.substring(0, tsSep).trim());
+        String ts = line.substring(tsSep + 1, priceSep).trim();
+        String price = line.substring(priceSep + 1).trim();
+        try {
+            Long stockId = resolver.resolve(name);
+            if (stockId == null) return null;
+            BigDecimal p = new BigDecimal(price);
+            if (p.signum() <= 0) return null;
+            return new Tick(stockId, p, parseInstant(ts));
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static Instant parseInstant(String ts) {
+        if (!ts.isEmpty() && ts.chars().allMatch(Character::isDigit)) {
+            return Instant.ofEpochMilli(Long.parseLong(ts));
+        }
+        return Instant.parse(ts);
+    }
+
+    private static String unquote(String s) {
+        if (s.length() >= 2 && s.charAt(0) == '"' && s.charAt(s.length() - 1) == '"') {
+            return s.substring(1, s.length() - 1).replace("\"\"", "\"");
+        }
+        return s;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    record Tick(Long stockId, BigDecimal price, Instant timestamp) {}
+
+    /**
+     * Name to id lookup preloaded from the stock table; names missing from the snapshot fall
+     * back to {@link StockRepository#findByName} once and the answer (hit or miss) is remembered.
+     */
+    private class StockNameResolver {
+        private final Map<String, Optional<Long>> ids = new ConcurrentHashMap<>();
+
+        StockNameResolver() {
+            for (Stock s : stockRepository.findAll()) {
+                ids.put(s.getName(), Optional.of(s.getId()));
+            }
+        }
+
+        Long resolve(String name) {
+            return ids.computeIfAbsent(name, n -> stockRepository.findByName(n).map(Stock::getId)).orElse(null);
+        }
+    }
+}
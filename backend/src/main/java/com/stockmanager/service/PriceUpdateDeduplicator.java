@@ -0,0 +1,121 @@
+package com.stockmanager.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.repository.StockRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Drops price updates the feed has already delivered, or that were overtaken by a newer one.
+ * <p>
+ * Updates may carry the feed's {@code sourceSequence} and {@code sourceTimestamp}. Each stock keeps
+ * the highest pair applied so far (its high-water mark) in the {@code source_*} columns and, for a
+ * check that needs no database work, in memory. A sequence decides when both sides have one,
+ * otherwise the timestamp: equal is a duplicate (e.g. a retry after a timeout), lower is stale
+ * (e.g. overtaken on another connection). Updates without either field are always applied.
+ * <p>
+ * The in-memory check runs before the transaction; {@link StockService#updatePrice} repeats it
+ * against the locked row, which settles a retry racing its original. Drops are counted in
+ * {@code stock.price.updates.dropped}, tagged by reason.
+ */
+@Component
+public class PriceUpdateDeduplicator {
+    public enum Verdict { APPLY, DUPLICATE, STALE }
+
+    public record Mark(Instant timestamp, Long sequence) {
+        public static Mark of(Stock stock) {
+            return new Mark(stock.getSourceTimestamp(), stock.getSourceSequence());
+        }
+    }
+
+    private final StockRepository stockRepository;
+    private final Map<Long, Mark> marks = new ConcurrentHashMap<>();
+    private final Counter duplicates;
+    private final Counter stale;
+
+    public PriceUpdateDeduplicator(StockRepository stockRepository, MeterRegistry meterRegistry) {
+        this.stockRepository = stockRepository;
+        this.duplicates = Counter.builder("stock.price.updates.dropped")
+                .description("Price updates dropped as repeated or older than the last applied feed tick")
+                .tag("reason", "duplicate")
+                .register(meterRegistry);
+        this.stale = Counter.builder("stock.price.updates.dropped")
+                .description("Price updates dropped as repeated or older than the last applied feed tick")
+                .tag("reason", "stale")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Object[] row : stockRepository.findSourceMarks()) {
+            marks.put((Long) row[0], new Mark((Instant) row[1], (Long) row[2]));
+        }
+    }
+
+    // Against the in-memory mark, before any database work
+    public boolean admit(Long stockId, Instant sourceTimestamp, Long sourceSequence) {
+        if (sourceTimestamp == null && sourceSequence == null) return true;
+        return admit(marks.get(stockId), sourceTimestamp, sourceSequence);
+    }
+
+    // Against a mark read from the database
+    public boolean admit(Mark mark, Instant sourceTimestamp, Long sourceSequence) {
+        Verdict verdict = verdict(mark, sourceTimestamp, sourceSequence);
+        if (verdict == Verdict.DUPLICATE) duplicates.increment();
+        else if (verdict == Verdict.STALE) stale.increment();
+        return verdict == Verdict.APPLY;
+    }
+
+    // Records an applied update's mark once its transaction commits
+    public void advance(Long stockId, Mark mark) {
+        if (mark.timestamp() == null && mark.sequence() == null) return;
+        Runnable update = () -> marks.merge(stockId, mark,
+                (current, next) -> verdict(current, next.timestamp(), next.sequence()) == Verdict.APPLY ? next : current);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        marks.remove(event.getStockId());
+    }
+
+    public static Verdict verdict(Mark mark, Instant sourceTimestamp, Long sourceSequence) {
+        if (mark == null) return Verdict.APPLY;
+        int order;
+        if (sourceSequence != null && mark.sequence() != null) {
+            order = Long.compare(sourceSequence, mark.sequence());
+        } else if (sourceTimestamp != null && mark.timestamp() != null) {
+            order = sourceTimestamp.compareTo(mark.timestamp());
+        } else {
+            return Verdict.APPLY; // nothing to compare
+        }
+        return order > 0 ? Verdict.APPLY : order == 0 ? Verdict.DUPLICATE : Verdict.STALE;
+    }
+
+    // The mark after applying an update; a field the update lacks keeps its previous value
+    public static Mark next(Mark mark, Instant sourceTimestamp, Long sourceSequence) {
+        return new Mark(sourceTimestamp != null ? sourceTimestamp : mark.timestamp(),
+                sourceSequence != null ? sourceSequence : mark.sequence());
+    }
+}
@@ -0,0 +1,121 @@
+package com.stockmanager.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-caller token buckets, one per (caller, endpoint class), plus a global cap on concurrent
+ * writes. Callers are authenticated usernames, or the client address for anonymous requests;
+ * refreshes are keyed by refresh-token family instead (see {@link RefreshTokenService#rotate}).
+ * Limits come from {@code app.ratelimit.*}; a class with a rate of 0 is unlimited.
+ */
+@Service
+public class RateLimitService {
+
+    public enum EndpointClass {
+        AUTH("auth"), REFRESH("refresh"), PRICE_UPDATE("price-update"), WRITE("write"), READ("read");
+
+        private final String tag;
+
+        EndpointClass(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Limit(double ratePerSecond, int burst) {}
+    private record Key(String caller, EndpointClass endpointClass) {}
+
+    private final boolean enabled;
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<Key, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Semaphore writePermits;
+    private final Map<EndpointClass, Counter> allowed = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+    private final Counter shed;
+
+    public RateLimitService(@Value("${app.ratelimit.enabled:true}") boolean enabled,
+                            @Value("${app.ratelimit.auth.rate:1}") double authRate,
+                            @Value("${app.ratelimit.auth.burst:10}") int authBurst,
+                            @Value("${app.ratelimit.refresh.rate:1}") double refreshRate,
+                            @Value("${app.ratelimit.refresh.burst:5}") int refreshBurst,
+                            @Value("${app.ratelimit.price-update.rate:50}") double priceRate,
+                            @Value("${app.ratelimit.price-update.burst:100}") int priceBurst,
+                            @Value("${app.ratelimit.write.rate:10}") double writeRate,
+                            @Value("${app.ratelimit.write.burst:20}") int writeBurst,
+                            @Value("${app.ratelimit.read.rate:100}") double readRate,
+                            @Value("${app.ratelimit.read.burst:200}") int readBurst,
+                            @Value("${app.ratelimit.write-concurrency:32}") int writeConcurrency,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        limits.put(EndpointClass.AUTH, new Limit(authRate, authBurst));
+        limits.put(EndpointClass.REFRESH, new Limit(refreshRate, refreshBurst));
+        limits.put(EndpointClass.PRICE_UPDATE, new Limit(priceRate, priceBurst));
+        limits.put(EndpointClass.WRITE, new Limit(writeRate, writeBurst));
+        limits.put(EndpointClass.READ, new Limit(readRate, readBurst));
+        this.writePermits = writeConcurrency > 0 ? new Semaphore(writeConcurrency) : null;
+
+        for (EndpointClass c : EndpointClass.values()) {
+            allowed.put(c, Counter.builder("ratelimit.requests").tag("class", c.tag).tag("outcome", "allowed")
+                    .register(meterRegistry));
+            rejected.put(c, Counter.builder("ratelimit.requests").tag("class", c.tag).tag("outcome", "rejected")
+                    .register(meterRegistry));
+        }
+        shed = Counter.builder("ratelimit.writes.shed")
+                .description("Writes refused because the concurrent write cap was reached")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.buckets", buckets, Map::size).register(meterRegistry);
+        if (writePermits != null) {
+            Gauge.builder("ratelimit.writes.in-flight", writePermits, p -> writeConcurrency - p.availablePermits())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise nanoseconds until it would be admitted
+     */
+    public long tryAcquire(String caller, EndpointClass endpointClass) {
+        Limit limit = limits.get(endpointClass);
+        if (!enabled || limit.ratePerSecond() <= 0) return 0;
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(new Key(caller, endpointClass),
+                k -> new TokenBucket(limit.ratePerSecond(), limit.burst(), now));
+        long wait = bucket.tryAcquire(now);
+        (wait == 0 ? allowed : rejected).get(endpointClass).increment();
+        return wait;
+    }
+
+    // Whole seconds for a Retry-After header, rounded up and at least 1
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    // Admission control for writes; a successful call must be paired with releaseWrite()
+    public boolean tryEnterWrite() {
+        if (!enabled || writePermits == null) return true;
+        if (writePermits.tryAcquire()) return true;
+        shed.increment();
+        return false;
+    }
+
+    public void releaseWrite() {
+        if (enabled && writePermits != null) writePermits.release();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> b.isIdle(now));
+    }
+}
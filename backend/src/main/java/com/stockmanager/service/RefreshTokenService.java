@@ -0,0 +1,117 @@
+package com.stockmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.stockmanager.entity.RefreshToken;
+import com.stockmanager.exception.InvalidTokenException;
+import com.stockmanager.exception.RateLimitedException;
+import com.stockmanager.repository.RefreshTokenRepository;
+import com.stockmanager.service.RateLimitService.EndpointClass;
+
+/**
+ * Opaque, rotating refresh tokens. Each exchange marks the presented token used and issues a
+ * successor in the same family; presenting a used token again means it was copied, so the whole
+ * family is revoked. Tokens are high-entropy random values, so a plain SHA-256 lookup is enough
+ * and no password hashing is involved on refresh.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository repository;
+    private final RateLimitService rateLimitService;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository repository,
+                               RateLimitService rateLimitService,
+                               @Value("${app.jwt.refresh-expiration-ms:1209600000}") long ttlMs) {
+        this.repository = repository;
+        this.rateLimitService = rateLimitService;
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    public record Issued(String username, String token) {}
+
+    // Starts a new family, one per login
+    public String issue(String username) {
+        return create(username, UUID.randomUUID().toString());
+    }
+
+    // Limited per family, before anything changes, so a throttled client can retry with the same token
+    public Issued rotate(String rawToken) {
+        Instant now = Instant.now();
+        RefreshToken current = repository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        long waitNanos = rateLimitService.tryAcquire("family:" + current.getFamilyId(), EndpointClass.REFRESH);
+        if (waitNanos > 0) {
+            throw new RateLimitedException("Rate limit exceeded", RateLimitService.retryAfterSeconds(waitNanos));
+        }
+        if (current.getRevokedAt() != null) {
+            throw new InvalidTokenException("Refresh token revoked");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new InvalidTokenException("Refresh token expired");
+        }
+        if (current.getUsedAt() != null || repository.markUsed(current.getId(), now) == 0) {
+            repository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}; revoked family {}", current.getUsername(), current.getFamilyId());
+            throw new InvalidTokenException("Refresh token reuse detected");
+        }
+        return new Issued(current.getUsername(), create(current.getUsername(), current.getFamilyId()));
+    }
+
+    // Logout: ends the session the token belongs to; unknown tokens are ignored
+    public void revoke(String rawToken) {
+        repository.findByTokenHash(hash(rawToken))
+                .ifPresent(t -> repository.revokeFamily(t.getFamilyId(), Instant.now()));
+    }
+
+    public int revokeAll(String username) {
+        return repository.revokeAllForUser(username, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpiredBefore(Instant.now());
+        if (purged > 0) log.debug("Purged {} expired refresh tokens", purged);
+    }
+
+    private String create(String username, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = Instant.now();
+        repository.save(RefreshToken.builder()
+                .tokenHash(hash(raw))
+                .familyId(familyId)
+                .username(username)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return raw;
+    }
+
+    static String hash(String raw) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
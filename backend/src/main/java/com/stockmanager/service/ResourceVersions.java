@@ -0,0 +1,130 @@
+package com.stockmanager.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.stockmanager.config.ReplicaMonitor;
+
+/**
+ * Monotonic version counters behind the ETags on the polled read endpoints. Mutations bump
+ * them once their transaction has committed, and readers take the version before querying,
+ * so a tag can only ever be older than the body it labels, never newer. The boot epoch keeps
+ * tags from a previous run from matching after a restart resets the counters.
+ * <p>
+ * With a read replica, a version is only as good as the data it labels: each history change also
+ * records the primary's {@link ReplicaMonitor#position()}, so a read-only read can tell whether the
+ * replica has applied it yet (see {@link #historyReplicated}).
+ */
+@Component
+public class ResourceVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong stocks = new AtomicLong();
+    private final AtomicLong exchanges = new AtomicLong();
+    private final Map<Long, AtomicLong> histories = new ConcurrentHashMap<>();
+    // Primary position of each stock's latest history change; earlier changes are bounded by boot
+    private final Map<Long, Long> historyPositions = new ConcurrentHashMap<>();
+    private final ReplicaMonitor replica;
+    private final long bootPosition;
+
+    public ResourceVersions() {
+        this((ReplicaMonitor) null);
+    }
+
+    @Autowired
+    public ResourceVersions(ObjectProvider<ReplicaMonitor> replica) {
+        this(replica.getIfAvailable());
+    }
+
+    public ResourceVersions(ReplicaMonitor replica) {
+        this.replica = replica;
+        this.bootPosition = replica == null ? 0 : replica.position();
+    }
+
+    public void stocksChanged() {
+        afterCommit(stocks::incrementAndGet);
+    }
+
+    public void exchangesChanged() {
+        afterCommit(exchanges::incrementAndGet);
+    }
+
+    public void historyChanged(Long stockId) {
+        if (stockId == null) return; // not addressable until it has an id
+        afterCommit(() -> {
+            // Before the bump: a reader that sees the new version also sees its position
+            if (replica != null) historyPositions.put(stockId, replica.position());
+            histories.computeIfAbsent(stockId, id -> new AtomicLong()).incrementAndGet();
+        });
+    }
+
+    public String stocksEtag() {
+        return etag("s", stocks.get());
+    }
+
+    public String exchangesEtag() {
+        return etag("e", exchanges.get());
+    }
+
+    public String historyEtag(Long stockId) {
+        AtomicLong v = histories.get(stockId);
+        return etag("h" + stockId, v == null ? 0 : v.get());
+    }
+
+    public long historyVersion(Long stockId) {
+        AtomicLong v = histories.get(stockId);
+        return v == null ? 0 : v.get();
+    }
+
+    /**
+     * Whether a read-only read of the stock's history, taken now, is at least as new as
+     * {@link #historyVersion(Long)} read before this call, wherever it is routed. Until then a replica
+     * read may predate the version, so it must not be tagged with it or shared under it.
+     */
+    public boolean historyReplicated(Long stockId) {
+        if (replica == null) return true;
+        return replica.hasApplied(historyPositions.getOrDefault(stockId, bootPosition));
+    }
+
+    public long exchangesVersion() {
+        return exchanges.get();
+    }
+
+    // Changes whenever the history of any of stockIds does
+    public long historyVersion(Collection<Long> stockIds) {
+        long sum = 0;
+        for (Long stockId : stockIds) {
+            sum += historyVersion(stockId);
+        }
+        return sum;
+    }
+
+    // Distinct tag for another representation (format or layout) of the same version
+    public static String variant(String etag, String representation) {
+        return etag.substring(0, etag.length() - 1) + "-" + representation + "\"";
+    }
+
+    private String etag(String resource, long version) {
+        return "\"" + epoch + "-" + resource + "-" + version + "\"";
+    }
+
+    private static void afterCommit(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+}
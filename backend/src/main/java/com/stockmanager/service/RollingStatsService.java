@@ -0,0 +1,175 @@
+package com.stockmanager.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockmanager.dto.StockStatsDto;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+
+/**
+ * Per-stock rolling analytics maintained tick by tick: simple and exponential moving averages of
+ * the price and the volatility (sample standard deviation) of log returns, each over every
+ * configured window. Windows are counted in ticks. All updates are O(1) per window; nothing here
+ * re-reads price history, so statistics start from the first tick seen by this instance.
+ */
+@Service
+public class RollingStatsService {
+    private final int[] windows;
+    private final boolean publish;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<Long, StockStats> stats = new ConcurrentHashMap<>();
+
+    public RollingStatsService(@Value("${app.stats.windows:20,50,200}") int[] windows,
+                               @Value("${app.stats.publish:false}") boolean publish,
+                               SimpMessagingTemplate messagingTemplate) {
+        this.windows = Arrays.stream(windows).filter(w -> w > 1).distinct().sorted().toArray();
+        this.publish = publish;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    // After commit, so a rolled-back update never leaks into the statistics
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        StockStatsDto dto = stats.computeIfAbsent(event.getStockId(), id -> new StockStats(windows))
+                .add(event.getPrice().doubleValue(), event.getTimestamp(), event.getStockId());
+        if (publish) {
+            messagingTemplate.convertAndSend("/topic/stocks/" + event.getStockId() + "/stats", dto);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        stats.remove(event.getStockId());
+    }
+
+    public StockStatsDto getStats(Long stockId) {
+        StockStats s = stats.get(stockId);
+        return s != null ? s.snapshot(stockId) : new StockStats(windows).snapshot(stockId);
+    }
+
+    static final class StockStats {
+        private final Window[] windows;
+        private long ticks;
+        private double lastPrice = Double.NaN;
+        private Instant updatedAt;
+
+        StockStats(int[] sizes) {
+            windows = new Window[sizes.length];
+            for (int i = 0; i < sizes.length; i++) {
+                windows[i] = new Window(sizes[i]);
+            }
+        }
+
+        synchronized StockStatsDto add(double price, Instant at, Long stockId) {
+            boolean hasReturn = ticks > 0 && lastPrice > 0 && price > 0;
+            double logReturn = hasReturn ? Math.log(price / lastPrice) : 0;
+            for (Window w : windows) {
+                w.addPrice(price);
+                if (hasReturn) w.addReturn(logReturn);
+            }
+            ticks++;
+            lastPrice = price;
+            updatedAt = at;
+            return toDto(stockId);
+        }
+
+        synchronized StockStatsDto snapshot(Long stockId) {
+            return toDto(stockId);
+        }
+
+        private StockStatsDto toDto(Long stockId) {
+            StockStatsDto dto = new StockStatsDto();
+            dto.setStockId(stockId);
+            dto.setTicks(ticks);
+            dto.setLastPrice(ticks > 0 ? lastPrice : null);
+            dto.setUpdatedAt(updatedAt);
+            List<StockStatsDto.WindowStats> list = new ArrayList<>(windows.length);
+            for (Window w : windows) {
+                list.add(w.toDto());
+            }
+            dto.setWindows(list);
+            return dto;
+        }
+    }
+
+    /**
+     * One window of N ticks. Prices and returns sit in ring buffers so the value leaving the window
+     * is known; SMA keeps a running sum and the return variance is a sliding-window Welford update.
+     */
+    static final class Window {
+        private final int size;
+        private final double alpha;
+
+        private final double[] prices;
+        private int priceCount;
+        private int priceHead;
+        private double priceSum;
+        private double ema = Double.NaN;
+
+        private final double[] returns;
+        private int returnCount;
+        private int returnHead;
+        private double mean;
+        private double m2;
+
+        Window(int size) {
+            this.size = size;
+            this.alpha = 2.0 / (size + 1);
+            this.prices = new double[size];
+            this.returns = new double[size];
+        }
+
+        void addPrice(double price) {
+            if (priceCount < size) {
+                priceCount++;
+            } else {
+                priceSum -= prices[priceHead];
+            }
+            prices[priceHead] = price;
+            priceHead = (priceHead + 1) % size;
+            priceSum += price;
+            ema = Double.isNaN(ema) ? price : ema + alpha * (price - ema);
+        }
+
+        void addReturn(double r) {
+            if (returnCount < size) {
+                returnCount++;
+                double delta = r - mean;
+                mean += delta / returnCount;
+                m2 += delta * (r - mean);
+            } else {
+                double old = returns[returnHead];
+                double oldMean = mean;
+                mean += (r - old) / size;
+                m2 += (r - old) * (r - mean + old - oldMean);
+            }
+            returns[returnHead] = r;
+            returnHead = (returnHead + 1) % size;
+        }
+
+        StockStatsDto.WindowStats toDto() {
+            StockStatsDto.WindowStats dto = new StockStatsDto.WindowStats();
+            dto.setWindow(size);
+            dto.setSamples(priceCount);
+            if (priceCount > 0) {
+                dto.setSma(priceSum / priceCount);
+                dto.setEma(ema);
+            }
+            if (returnCount > 1) {
+                // sliding updates can drift a hair below zero when the window is flat
+                dto.setVolatility(Math.sqrt(Math.max(0, m2 / (returnCount - 1))));
+            }
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.stockmanager.service;
+
+import org.hibernate.Cache;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.event.ExchangeDeletedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockMembershipChangedEvent;
+import com.stockmanager.event.StocksCreatedEvent;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Evicts the second-level cache entries Hibernate leaves behind on its own.
+ * <p>
+ * {@code Stock.exchanges} is the inverse side of the membership join table, and Hibernate only
+ * maintains the cache of the owning {@code StockExchange.stocks} collection when memberships change.
+ * The native statements in the repositories declare their tables as query spaces, which makes
+ * Hibernate evict the matching entity regions, but a join table maps to no region: the collections
+ * touched by the native membership delete in {@link StockService#delete} are evicted here.
+ * {@link StockBatchService} writes with plain JDBC, which Hibernate does not see at all.
+ * <p>
+ * Each listener runs ahead of the other after-commit listeners so that, for example,
+ * {@link StockJsonCache} does not re-serialize a stock from a stale cached membership. The order
+ * has to sit on the methods: Spring reads it from there, not from the class.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+    private static final String STOCK_EXCHANGES = Stock.class.getName() + ".exchanges";
+    private static final String EXCHANGE_STOCKS = StockExchange.class.getName() + ".stocks";
+
+    private final Cache cache;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(StockMembershipChangedEvent event) {
+        cache.evictCollectionData(STOCK_EXCHANGES, event.getStockId());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        cache.evictCollectionData(STOCK_EXCHANGES, event.getStockId());
+        for (Long exchangeId : event.getExchangeIds()) {
+            cache.evictCollectionData(EXCHANGE_STOCKS, exchangeId);
+        }
+    }
+
+    // Cached query results (e.g. a findByName miss) are not invalidated by the JDBC inserts either
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStocksCreated(StocksCreatedEvent event) {
+        if (event.getExchangeId() != null) cache.evictCollectionData(EXCHANGE_STOCKS, event.getExchangeId());
+        cache.evictQueryRegions();
+    }
+
+    // The event does not carry the member list, and exchange deletes are rare
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExchangeDeleted(ExchangeDeletedEvent event) {
+        cache.evictCollectionData(STOCK_EXCHANGES);
+    }
+}
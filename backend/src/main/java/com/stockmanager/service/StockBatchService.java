@@ -0,0 +1,179 @@
+package com.stockmanager.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stockmanager.dto.CreateStockRequest;
+import com.stockmanager.dto.ExchangeDto;
+import com.stockmanager.dto.StockDto;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StocksCreatedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockExchangeRepository;
+import com.stockmanager.repository.StockRepository;
+
+/**
+ * Creates many stocks in one transaction, for onboarding a venue. Names are checked against the
+ * database in a single query, and the stocks, their opening history rows and their exchange
+ * listings are written with batched JDBC instead of one {@link StockService#create} per stock.
+ * The whole batch is announced once: one {@code /topic/stocks/batch} message, one
+ * {@code /topic/exchanges} message if the stocks were listed, and one {@link StocksCreatedEvent}.
+ * <p>
+ * Rows written this way bypass Hibernate, so {@link SecondLevelCacheEvictor} evicts what its
+ * caches may hold about them once the batch commits.
+ */
+@Service
+public class StockBatchService {
+    private static final String INSERT_STOCK_SQL =
+            "INSERT INTO stock (name, description, current_price, last_update, event_sequence) VALUES (?, ?, ?, ?, 1)";
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO stock_price_history (stock_id, price, timestamp) VALUES (?, ?, ?)";
+    private static final String INSERT_MEMBERSHIP_SQL =
+            "INSERT INTO stock_exchange_stock (exchange_id, stock_id) VALUES (?, ?)";
+
+    // Names listed in an error message before it is cut short
+    private static final int MAX_NAMES_REPORTED = 20;
+
+    private final StockRepository stockRepository;
+    private final StockExchangeRepository exchangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersions versions;
+    private final EventOutbox outbox;
+    private final int batchSize;
+
+    public StockBatchService(StockRepository stockRepository,
+                             StockExchangeRepository exchangeRepository,
+                             JdbcTemplate jdbcTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             ResourceVersions versions,
+                             EventOutbox outbox,
+                             @Value("${app.stocks.batch-insert-size:1000}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("app.stocks.batch-insert-size must be positive");
+        }
+        this.stockRepository = stockRepository;
+        this.exchangeRepository = exchangeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.versions = versions;
+        this.outbox = outbox;
+        this.batchSize = batchSize;
+    }
+
+    // All or nothing: any duplicate name rejects the whole batch
+    @Transactional
+    public List<StockDto> create(List<CreateStockRequest> requests, Long exchangeId) {
+        Set<String> names = new HashSet<>();
+        Set<String> repeated = new TreeSet<>();
+        for (CreateStockRequest req : requests) {
+            if (!names.add(req.getName())) repeated.add(req.getName());
+        }
+        if (!repeated.isEmpty()) {
+            throw new BusinessRuleException("Stock names repeated in the batch: " + describe(repeated));
+        }
+        StockExchange exchange = exchangeId == null ? null : exchangeRepository.findById(exchangeId)
+                .orElseThrow(() -> new NotFoundException("Exchange not found: " + exchangeId));
+        List<String> existing = stockRepository.findExistingNames(names);
+        if (!existing.isEmpty()) {
+            throw new BusinessRuleException("Stock names already exist: " + describe(new TreeSet<>(existing)));
+        }
+
+        Instant now = Instant.now();
+        Timestamp timestamp = Timestamp.from(now);
+        List<Long> exchangeIds = exchangeId == null ? List.of() : List.of(exchangeId);
+        List<StockDto> created = new ArrayList<>(requests.size());
+        List<StockCreatedEvent> events = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += batchSize) {
+            List<CreateStockRequest> chunk = requests.subList(from, Math.min(from + batchSize, requests.size()));
+            List<Long> ids = insertStocks(chunk, timestamp);
+
+            List<Object[]> history = new ArrayList<>(chunk.size());
+            List<Object[]> memberships = new ArrayList<>(exchangeId == null ? 0 : chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                CreateStockRequest req = chunk.get(i);
+                Long id = ids.get(i);
+                history.add(new Object[]{id, req.getCurrentPrice(), timestamp});
+                if (exchangeId != null) memberships.add(new Object[]{exchangeId, id});
+
+                StockDto dto = new StockDto();
+                dto.setId(id);
+                dto.setName(req.getName());
+                dto.setDescription(req.getDescription());
+                dto.setCurrentPrice(req.getCurrentPrice());
+                dto.setLastUpdate(now);
+                dto.setExchangeIds(exchangeIds);
+                created.add(dto);
+                events.add(new StockCreatedEvent(id, req.getName(), req.getCurrentPrice(), now));
+                versions.historyChanged(id);
+            }
+            jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, history);
+            if (!memberships.isEmpty()) jdbcTemplate.batchUpdate(INSERT_MEMBERSHIP_SQL, memberships);
+        }
+
+        versions.stocksChanged();
+        // The exchange message lists the new stock ids, so it goes after the stocks themselves
+        outbox.stocksCreated(created);
+        if (exchange != null) {
+            versions.exchangesChanged();
+            // Read back from the join table: the entity's member collection does not see the inserts
+            outbox.exchangeChanged(ExchangeDto.from(exchange, exchangeRepository.findStockIdsByExchangeId(exchangeId)));
+        }
+        eventPublisher.publishEvent(new StocksCreatedEvent(events, exchangeId));
+        return created;
+    }
+
+    // One JDBC batch; ids come back as generated keys, in statement order
+    private List<Long> insertStocks(List<CreateStockRequest> chunk, Timestamp timestamp) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_STOCK_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CreateStockRequest req = chunk.get(i);
+                        ps.setString(1, req.getName());
+                        ps.setString(2, req.getDescription());
+                        ps.setBigDecimal(3, req.getCurrentPrice());
+                        ps.setTimestamp(4, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> rows = keys.getKeyList();
+        if (rows.size() != chunk.size()) {
+            throw new IllegalStateException("Expected " + chunk.size() + " generated stock ids, got " + rows.size());
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            ids.add(((Number) row.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private static String describe(Set<String> names) {
+        if (names.size() <= MAX_NAMES_REPORTED) return String.join(", ", names);
+        return String.join(", ", names.stream().limit(MAX_NAMES_REPORTED).toList())
+                + " and " + (names.size() - MAX_NAMES_REPORTED) + " more";
+    }
+}
@@ -2,29 +2,53 @@ package com.stockmanager.service;
 
 import java.util.List;
 
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stockmanager.entity.Stock;
 import com.stockmanager.entity.StockExchange;
+import com.stockmanager.event.ExchangeDeletedEvent;
+import com.stockmanager.event.StockMembershipChangedEvent;
 import com.stockmanager.exception.BusinessRuleException;
 import com.stockmanager.exception.NotFoundException;
 import com.stockmanager.repository.StockExchangeRepository;
 import com.stockmanager.repository.StockRepository;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Service
 public class StockExchangeService {
     private final StockExchangeRepository exchangeRepository;
     private final StockRepository stockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersions versions;
+    private final EventOutbox outbox;
 
+    // Shared between concurrent readers, so read-only; mutations load their own copy via find().
+    // Keyed by the exchanges version too, so a reader arriving after a commit starts a new load.
+    private record VersionedKey(Long id, long version) {}
+
+    private final SingleFlight<VersionedKey, StockExchange> exchangeLoads = new SingleFlight<>();
+
+    // On the primary, like StockService's cached reads
+    @Transactional
     public List<StockExchange> listAll(){
         return exchangeRepository.findAll();
     }
 
+    @Transactional
     public StockExchange getById(Long id){
+        return exchangeLoads.load(new VersionedKey(id, versions.exchangesVersion()), () -> {
+            StockExchange ex = find(id);
+            Hibernate.initialize(ex.getStocks());
+            return ex;
+        });
+    }
+
+    private StockExchange find(Long id){
         return exchangeRepository.findById(id).orElseThrow(() -> new NotFoundException("Exchange not found: " + id));
     }
 
@@ -39,12 +63,15 @@ public class StockExchangeService {
             // we enforce rule strictly: cannot start live with <10 stocks
             throw new BusinessRuleException("Exchange must have at least 10 stocks to be live");
         }
-        return exchangeRepository.save(ex);
+        versions.exchangesChanged();
+        StockExchange saved = exchangeRepository.save(ex);
+        outbox.exchangeChanged(saved);
+        return saved;
     }
 
     @Transactional
     public StockExchange update(Long id, String name, String description, Boolean liveInMarket){
-        StockExchange ex = getById(id);
+        StockExchange ex = find(id);
         if (name != null) ex.setName(name);
         if (description != null) ex.setDescription(description);
         if (liveInMarket != null) {
@@ -53,7 +80,10 @@ public class StockExchangeService {
             }
             ex.setLiveInMarket(liveInMarket);
         }
-        return exchangeRepository.save(ex);
+        versions.exchangesChanged();
+        StockExchange saved = exchangeRepository.save(ex);
+        outbox.exchangeChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -62,6 +92,11 @@ public class StockExchangeService {
             throw new NotFoundException("Exchange not found: " + id);
         }
         exchangeRepository.deleteById(id);
+        // stocks list their exchange ids, so both sets change
+        versions.exchangesChanged();
+        versions.stocksChanged();
+        outbox.exchangeDeleted(id);
+        eventPublisher.publishEvent(new ExchangeDeletedEvent(id));
     }
 
     @Transactional
@@ -78,18 +113,28 @@ public class StockExchangeService {
         }
 
         exchange.getStocks().add(stock);
-        return exchangeRepository.save(exchange);
+        StockExchange saved = exchangeRepository.save(exchange);
+        versions.exchangesChanged();
+        versions.stocksChanged();
+        outbox.exchangeChanged(saved);
+        eventPublisher.publishEvent(new StockMembershipChangedEvent(exchangeId, stockId, stock.getCurrentPrice(), true));
+        return saved;
     }
 
     @Transactional
     public StockExchange removeStockFromExchange(Long exchangeId, Long stockId){
-        StockExchange ex = getById(exchangeId);
+        StockExchange ex = find(exchangeId);
         boolean removed = ex.getStocks().removeIf(st -> st.getId().equals(stockId));
         if (!removed) throw new NotFoundException("Stock not linked to exchange");
         // enforce rule: if stock count drops below 10, automatically set liveInMarket = false
         if (ex.getStocks().size() < 10 && ex.isLiveInMarket()) {
             ex.setLiveInMarket(false);
         }
-        return exchangeRepository.save(ex);
+        StockExchange saved = exchangeRepository.save(ex);
+        versions.exchangesChanged();
+        versions.stocksChanged();
+        outbox.exchangeChanged(saved);
+        eventPublisher.publishEvent(new StockMembershipChangedEvent(exchangeId, stockId, null, false));
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.stockmanager.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.dto.StockDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.ExchangeDeletedEvent;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockMembershipChangedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.event.StocksCreatedEvent;
+
+/**
+ * Per-stock serialized {@link StockDto} JSON, so list responses are assembled by concatenating
+ * bytes and a tick is serialized once for both the REST response and the STOMP broadcast.
+ * <p>
+ * Entries are dropped after a change commits. Readers take {@link #mark()} before loading the
+ * entities and only install bytes if the stock has not been invalidated since, so a slow reader
+ * holding an old entity cannot put stale JSON back after the invalidation. The invalidation is
+ * kept as a tombstone until {@link #pruneTombstones()} folds it into the floor.
+ */
+@Component
+public class StockJsonCache {
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private volatile long floor;
+
+    public StockJsonCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public long mark() {
+        return clock.get();
+    }
+
+    public byte[] json(Stock stock, long mark) {
+        Entry cached = entries.get(stock.getId());
+        if (cached != null && cached.json() != null) return cached.json();
+
+        byte[] json = serialize(stock);
+        entries.compute(stock.getId(), (id, current) -> {
+            if (mark < floor) return current;
+            if (current == null) return new Entry(json, 0);
+            if (current.json() != null || current.invalidatedAt() > mark) return current;
+            return new Entry(json, current.invalidatedAt());
+        });
+        return json;
+    }
+
+    public byte[] jsonArray(List<Stock> stocks, long mark) {
+        if (stocks.isEmpty()) return EMPTY_ARRAY;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(stocks.size() * 160);
+        out.write('[');
+        for (int i = 0; i < stocks.size(); i++) {
+            if (i > 0) out.write(',');
+            out.writeBytes(json(stocks.get(i), mark));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    // Fresh bytes for a just-changed stock; not installed, the next list read fills the entry
+    public byte[] serialize(Stock stock) {
+        try {
+            return objectMapper.writeValueAsBytes(StockDto.from(stock));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // STOMP message carrying pre-serialized JSON, bypassing the template's payload conversion
+    public static Message<byte[]> message(byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+
+    // Moves past every mark taken before the stock's latest invalidation
+    public long version(Long stockId) {
+        Entry entry = entries.get(stockId);
+        return Math.max(floor, entry == null ? 0 : entry.invalidatedAt());
+    }
+
+    public void invalidate(Long stockId) {
+        entries.put(stockId, new Entry(null, clock.incrementAndGet()));
+    }
+
+    public void invalidateAll() {
+        raiseFloor(clock.incrementAndGet());
+        entries.clear();
+    }
+
+    /**
+     * Drops tombstones of invalidated stocks that were not read again, which would otherwise stay
+     * for every stock ever deleted. The floor is raised past them first, so {@link #version} never
+     * goes back and readers that started before them still cannot install; the only cost is that
+     * readers in flight across the prune don't install bytes for other stocks either.
+     */
+    @Scheduled(fixedDelayString = "${app.stocks.json-cache-prune-interval-ms:60000}")
+    public void pruneTombstones() {
+        long newest = 0;
+        for (Entry e : entries.values()) {
+            if (e.json() == null) newest = Math.max(newest, e.invalidatedAt());
+        }
+        if (newest <= floor) return;
+        long pruned = newest;
+        raiseFloor(pruned);
+        entries.values().removeIf(e -> e.json() == null && e.invalidatedAt() <= pruned);
+    }
+
+    // Never lowered: a prune racing invalidateAll must not undo it
+    private synchronized void raiseFloor(long to) {
+        if (to > floor) floor = to;
+    }
+
+    // Nothing cached yet, but a load that found no such stock must not be shared past the create
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCreated(StockCreatedEvent event) {
+        invalidate(event.getStockId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStocksCreated(StocksCreatedEvent event) {
+        event.getStocks().forEach(this::onStockCreated);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        invalidate(event.getStockId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        invalidate(event.getStockId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(StockMembershipChangedEvent event) {
+        invalidate(event.getStockId());
+    }
+
+    // The event does not carry the member list, and exchange deletes are rare
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExchangeDeleted(ExchangeDeletedEvent event) {
+        invalidateAll();
+    }
+
+    private record Entry(byte[] json, long invalidatedAt) {}
+}
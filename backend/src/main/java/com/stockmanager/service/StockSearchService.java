@@ -0,0 +1,257 @@
+package com.stockmanager.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stockmanager.dto.PagedResponse;
+import com.stockmanager.dto.StockDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.event.StocksCreatedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockExchangeRepository;
+import com.stockmanager.repository.StockRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Stock search over an in-memory name index. Prefix matches walk a sorted map of lower-cased
+ * names; substring matches intersect trigram postings and then verify the candidates. Queries
+ * shorter than a trigram match on prefix only. Price filters and sorting use the price kept
+ * alongside each name, exchange filters read the membership table, and only the requested page
+ * is loaded from the database. Listing without a query or price filter in name order walks the
+ * sorted name map up to the requested page instead of sorting every entry.
+ */
+@Service
+public class StockSearchService {
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int GRAM = 3;
+
+    private final StockRepository stockRepository;
+    private final StockExchangeRepository exchangeRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // lower-cased name + '\0' + zero-padded id: names differing only by case keep separate keys,
+    // and key order is the name sort's order
+    private final NavigableMap<String, Long> byName = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> trigrams = new ConcurrentHashMap<>();
+
+    public StockSearchService(StockRepository stockRepository, StockExchangeRepository exchangeRepository) {
+        this.stockRepository = stockRepository;
+        this.exchangeRepository = exchangeRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Stock s : stockRepository.findAll()) {
+            add(s.getId(), s.getName(), s.getCurrentPrice());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCreated(StockCreatedEvent event) {
+        add(event.getStockId(), event.getName(), event.getPrice());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStocksCreated(StocksCreatedEvent event) {
+        for (StockCreatedEvent created : event.getStocks()) {
+            add(created.getStockId(), created.getName(), created.getPrice());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        Entry removed = entries.remove(event.getStockId());
+        if (removed == null) return;
+        byName.remove(nameKey(removed));
+        for (String gram : grams(removed.lowerName())) {
+            trigrams.computeIfPresent(gram, (g, ids) -> {
+                ids.remove(removed.id());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        updatePrice(event.getStockId(), event.getPrice());
+    }
+
+    public void updatePrice(Long stockId, BigDecimal price) {
+        entries.computeIfPresent(stockId, (id, e) -> new Entry(id, e.name(), e.lowerName(), price));
+    }
+
+    /**
+     * @param sort {@code relevance} (default when {@code q} is given), {@code name} or {@code price},
+     *             optionally suffixed with {@code ,desc}
+     */
+    public PagedResponse<StockDto> search(String q, Long exchangeId, BigDecimal minPrice, BigDecimal maxPrice,
+                                          String sort, int page, int size) {
+        if (page < 0) throw new BusinessRuleException("page must not be negative");
+        if (size < 1 || size > MAX_PAGE_SIZE) throw new BusinessRuleException("size must be between 1 and " + MAX_PAGE_SIZE);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BusinessRuleException("minPrice must not exceed maxPrice");
+        }
+        String query = q == null ? "" : q.trim().toLowerCase(Locale.ROOT);
+        Sort parsed = Sort.parse(sort, query.isEmpty());
+        Comparator<Entry> order = parsed.comparator();
+
+        Set<Long> members = null;
+        if (exchangeId != null) {
+            if (!exchangeRepository.existsById(exchangeId)) {
+                throw new NotFoundException("Exchange not found: " + exchangeId);
+            }
+            members = new HashSet<>(exchangeRepository.findStockIdsByExchangeId(exchangeId));
+        }
+        if (query.isEmpty() && minPrice == null && maxPrice == null && parsed.field().equals("name")) {
+            return inNameOrder(members, parsed.desc(), page, size);
+        }
+
+        Collection<Entry> candidates = query.isEmpty() ? entries.values() : match(query);
+
+        List<Entry> hits = new ArrayList<>();
+        for (Entry e : candidates) {
+            if (members != null && !members.contains(e.id())) continue;
+            if (minPrice != null && e.price().compareTo(minPrice) < 0) continue;
+            if (maxPrice != null && e.price().compareTo(maxPrice) > 0) continue;
+            hits.add(e);
+        }
+        if (order != null) hits.sort(order);
+
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<Long> pageIds = hits.subList(from, to).stream().map(Entry::id).toList();
+        return page(pageIds, page, size, hits.size());
+    }
+
+    // Unfiltered but for exchange membership: skips to the page along the name map. The total is
+    // counted on the same walk when filtering, otherwise it is the map's size
+    private PagedResponse<StockDto> inNameOrder(Set<Long> members, boolean desc, int page, int size) {
+        long skip = (long) page * size;
+        List<Long> pageIds = new ArrayList<>(size);
+        long total = 0;
+        for (Long id : (desc ? byName.descendingMap() : byName).values()) {
+            if (members != null && !members.contains(id)) continue;
+            if (total++ < skip) continue;
+            if (pageIds.size() < size) {
+                pageIds.add(id);
+            } else if (members == null) {
+                total = Math.max(total, byName.size());
+                break;
+            }
+        }
+        return page(pageIds, page, size, total);
+    }
+
+    private PagedResponse<StockDto> page(List<Long> pageIds, int page, int size, long total) {
+        Map<Long, Stock> loaded = stockRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Stock::getId, Function.identity()));
+        List<StockDto> content = pageIds.stream()
+                .map(loaded::get)
+                .filter(s -> s != null) // deleted since the index was read
+                .map(StockDto::from)
+                .toList();
+
+        int totalPages = (int) ((total + size - 1) / size);
+        return new PagedResponse<>(content, page, size, total, totalPages);
+    }
+
+    // Prefix matches first, in name order, then the remaining substring matches
+    private Collection<Entry> match(String query) {
+        List<Entry> result = new ArrayList<>();
+        Set<Long> prefixIds = new HashSet<>();
+        for (Long id : byName.subMap(query, true, query + Character.MAX_VALUE, true).values()) {
+            Entry e = entries.get(id);
+            if (e != null && prefixIds.add(id)) result.add(e);
+        }
+        if (query.length() < GRAM) return result;
+
+        Set<Long> smallest = null;
+        for (String gram : grams(query)) {
+            Set<Long> ids = trigrams.get(gram);
+            if (ids == null) return result;
+            if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+        }
+        List<Entry> substring = new ArrayList<>();
+        for (Long id : smallest) {
+            Entry e = entries.get(id);
+            if (e != null && !prefixIds.contains(id) && e.lowerName().contains(query)) substring.add(e);
+        }
+        substring.sort(Comparator.comparing(Entry::lowerName));
+        result.addAll(substring);
+        return result;
+    }
+
+    // field is lower-cased: relevance, name or price
+    private record Sort(String field, boolean desc) {
+        static Sort parse(String sort, boolean noQuery) {
+            String field = sort == null || sort.isBlank() ? (noQuery ? "name" : "relevance") : sort;
+            boolean desc = false;
+            int comma = field.indexOf(',');
+            if (comma >= 0) {
+                String direction = field.substring(comma + 1).trim();
+                if (!direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+                    throw new BusinessRuleException("Unknown sort direction: " + direction);
+                }
+                desc = direction.equalsIgnoreCase("desc");
+                field = field.substring(0, comma).trim();
+            }
+            field = field.toLowerCase(Locale.ROOT);
+            if (!field.equals("relevance") && !field.equals("name") && !field.equals("price")) {
+                throw new BusinessRuleException("Unknown sort field: " + field);
+            }
+            return new Sort(field, desc);
+        }
+
+        Comparator<Entry> comparator() {
+            Comparator<Entry> c = switch (field) {
+                case "name" -> Comparator.comparing(Entry::lowerName).thenComparing(Entry::id);
+                case "price" -> Comparator.comparing(Entry::price).thenComparing(Entry::id);
+                default -> null; // relevance: match order
+            };
+            return c != null && desc ? c.reversed() : c;
+        }
+    }
+
+    private void add(Long id, String name, BigDecimal price) {
+        Entry e = new Entry(id, name, name.toLowerCase(Locale.ROOT), price);
+        entries.put(id, e);
+        byName.put(nameKey(e), id);
+        for (String gram : grams(e.lowerName())) {
+            trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static String nameKey(Entry e) {
+        return e.lowerName() + '\0' + String.format("%019d", e.id());
+    }
+
+    private static Set<String> grams(String s) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            result.add(s.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private record Entry(Long id, String name, String lowerName, BigDecimal price) {}
+}
@@ -2,38 +2,114 @@ package com.stockmanager.service;
 
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.stockmanager.dto.ExchangeDto;
+import com.stockmanager.dto.QuoteDto;
+import com.stockmanager.dto.QuotesAsOfDto;
 import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
 import com.stockmanager.entity.StockPriceHistory;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
 import com.stockmanager.exception.NotFoundException;
 import com.stockmanager.repository.StockExchangeRepository;
 import com.stockmanager.repository.StockPriceHistoryRepository;
 import com.stockmanager.repository.StockRepository;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Service
 public class StockService {
     private final StockRepository stockRepository;
     private final StockExchangeRepository stockExchangeRepository;
     private final StockPriceHistoryRepository stockPriceHistoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersions versions;
+    private final EventOutbox outbox;
+    private final PriceUpdateDeduplicator deduplicator;
+    private final StockJsonCache jsonCache;
 
+    // Concurrent reads of the same stock or history share one query; results are handed to
+    // several requests, so they are fully initialized here and must be treated as read-only.
+    // Flights are keyed by version as well, so a reader arriving after a commit starts a new load.
+    private record VersionedKey(Long id, long version) {}
+
+    // Newest tick of a history import for one stock
+    public record ImportedQuote(BigDecimal price, Instant timestamp) {}
+
+    private final SingleFlight<VersionedKey, Stock> stockLoads = new SingleFlight<>();
+    private final SingleFlight<VersionedKey, List<StockPriceHistory>> historyLoads = new SingleFlight<>();
+
+    // Not readOnly, so never the replica (ReplicaDataSourceConfig): these results fill the entity and
+    // JSON caches and are served under ETags, where replica lag would outlive max-staleness-ms
+    @Transactional
     public List<Stock> listAll(){
         return stockRepository.findAll();
     }
 
+    @Transactional
     public Stock getById(Long id){
-        return stockRepository.findById(id).orElseThrow(() -> new NotFoundException("Stock not found: " + id));
+        // The JSON cache version: a caller whose mark postdates an invalidation never joins an older load
+        return stockLoads.load(new VersionedKey(id, jsonCache.version(id)), () -> {
+            Stock s = stockRepository.findById(id).orElseThrow(() -> new NotFoundException("Stock not found: " + id));
+            Hibernate.initialize(s.getExchanges());
+            return s;
+        });
     }
     
+    // May be served by the replica. Only shared under its version once the replica has applied it;
+    // a stock that just ticked is read on its own, and its caller leaves it untagged
+    @Transactional(readOnly = true)
     public List<StockPriceHistory> getPriceHistory(Long stockId) {
-        return stockPriceHistoryRepository.findByStockIdOrderByTimestampAsc(stockId);
+        // Taken after the caller's ETag, so the shared body is never older than the tag
+        long version = versions.historyVersion(stockId);
+        if (!versions.historyReplicated(stockId)) {
+            return List.copyOf(stockPriceHistoryRepository.findByStockIdOrderByTimestampAsc(stockId));
+        }
+        return historyLoads.load(new VersionedKey(stockId, version),
+                () -> List.copyOf(stockPriceHistoryRepository.findByStockIdOrderByTimestampAsc(stockId)));
+    }
+
+    // Every stock's (or one exchange's stocks') last recorded price at or before asOf. Neither cached
+    // nor tagged, so it may be served by the replica
+    @Transactional(readOnly = true)
+    public QuotesAsOfDto getQuotesAsOf(Instant asOf, Long exchangeId) {
+        List<Object[]> rows;
+        if (exchangeId != null) {
+            if (!stockExchangeRepository.existsById(exchangeId)) {
+                throw new NotFoundException("Exchange not found: " + exchangeId);
+            }
+            rows = stockPriceHistoryRepository.findQuotesAsOfByExchange(asOf, exchangeId);
+        } else {
+            rows = stockPriceHistoryRepository.findQuotesAsOf(asOf);
+        }
+        List<QuoteDto> quotes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            QuoteDto quote = new QuoteDto();
+            quote.setStockId(((Number) row[0]).longValue());
+            quote.setName((String) row[1]);
+            quote.setPrice((BigDecimal) row[2]);
+            quote.setTimestamp(toInstant(row[3]));
+            quotes.add(quote);
+        }
+        QuotesAsOfDto dto = new QuotesAsOfDto();
+        dto.setAsOf(asOf);
+        dto.setExchangeId(exchangeId);
+        dto.setQuotes(quotes);
+        return dto;
     }
 
     @Transactional
@@ -45,6 +121,7 @@ public class StockService {
         
         Instant currInstant = Instant.now();        
         s.setLastUpdate(currInstant);
+        s.setEventSequence(1);
 
         StockPriceHistory history = StockPriceHistory.builder()
             .stock(s)
@@ -52,16 +129,32 @@ public class StockService {
             .timestamp(currInstant)
             .build();
         s.getPriceHistory().add(history);
-        return stockRepository.save(s);
+        Stock saved = stockRepository.save(s);
+        versions.stocksChanged();
+        versions.historyChanged(saved.getId());
+        outbox.stockChanged(saved);
+        eventPublisher.publishEvent(new StockCreatedEvent(saved.getId(), name, currentPrice, currInstant));
+        return saved;
     }
 
     @Transactional
     public Stock updatePrice(Long id, BigDecimal newPrice) {
+        return updatePrice(id, newPrice, null, null);
+    }
 
-        Stock s = stockRepository.findById(id)
+    // Null if the feed already delivered this update or a newer one (see PriceUpdateDeduplicator)
+    @Transactional
+    public Stock updatePrice(Long id, BigDecimal newPrice, Instant sourceTimestamp, Long sourceSequence) {
+
+        Stock s = stockRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new NotFoundException("Stock not found: " + id));
+        // Checked again under the row lock: a retry may have passed the in-memory check alongside its original
+        PriceUpdateDeduplicator.Mark mark = PriceUpdateDeduplicator.Mark.of(s);
+        if (!deduplicator.admit(mark, sourceTimestamp, sourceSequence)) return null;
+        PriceUpdateDeduplicator.Mark next = PriceUpdateDeduplicator.next(mark, sourceTimestamp, sourceSequence);
 
         Instant currInstant = Instant.now();
+        BigDecimal previousPrice = s.getCurrentPrice();
 
         // Save current price in history
         StockPriceHistory history = StockPriceHistory.builder()
@@ -74,17 +167,69 @@ public class StockService {
         // Update current price
         s.setCurrentPrice(newPrice);
         s.setLastUpdate(currInstant);
-        return stockRepository.save(s);
+        s.setEventSequence(s.getEventSequence() + 1);
+        s.setSourceTimestamp(next.timestamp());
+        s.setSourceSequence(next.sequence());
+        Stock saved = stockRepository.save(s);
+        deduplicator.advance(id, next);
+        versions.stocksChanged();
+        versions.historyChanged(id);
+        outbox.stockChanged(saved);
+        eventPublisher.publishEvent(new StockPriceChangedEvent(id, previousPrice, newPrice, currInstant));
+        return saved;
+    }
+
+    /**
+     * Moves each stock's quote to its newest imported tick, unless a live update is more recent.
+     * Returns the ids of the stocks that moved. Entity updates rather than a bulk statement, so only
+     * these stocks' second-level cache entries change instead of the whole region being evicted.
+     * Each moved stock is announced like a {@link #updatePrice} tick: journaled through the outbox
+     * under its next event sequence and published as a {@link StockPriceChangedEvent}.
+     */
+    @Transactional
+    public List<Long> advanceToImported(Map<Long, ImportedQuote> latest) {
+        List<Long> advanced = new ArrayList<>();
+        for (Stock s : stockRepository.findAllByIdForUpdate(latest.keySet())) {
+            ImportedQuote quote = latest.get(s.getId());
+            if (!s.getLastUpdate().isBefore(quote.timestamp())) continue;
+            BigDecimal previousPrice = s.getCurrentPrice();
+            s.setCurrentPrice(quote.price());
+            s.setLastUpdate(quote.timestamp());
+            s.setEventSequence(s.getEventSequence() + 1);
+            outbox.stockChanged(s);
+            eventPublisher.publishEvent(new StockPriceChangedEvent(s.getId(), previousPrice, quote.price(), quote.timestamp()));
+            advanced.add(s.getId());
+        }
+        if (!advanced.isEmpty()) versions.stocksChanged();
+        return advanced;
     }
 
     @Transactional
     public void delete(Long stockId) {
+        Long sequence = stockRepository.findByIdForUpdate(stockId).map(s -> s.getEventSequence() + 1).orElse(null);
         List<Long> affectedExchangeIds = stockExchangeRepository.findIdsByStockId(stockId);
         // Ahhh, can be made way more efficient, but would have to utilize some of the database engine
         // capabilites, but since currently we are just using an in-memory database, so good enough for now
         stockRepository.removeStockFromAllExchanges(stockId);
         stockRepository.deleteById(stockId);
         stockExchangeRepository.deactivateIfBelowStockThreshold(affectedExchangeIds, 10);
+        versions.stocksChanged();
+        versions.historyChanged(stockId);
+        if (!affectedExchangeIds.isEmpty()) versions.exchangesChanged();
+        if (sequence != null) outbox.stockDeleted(stockId, sequence);
+        // Each exchange lost a member and may have been taken out of the market. Members are read back
+        // from the join table: the entity's collection does not see the native delete
+        for (StockExchange exchange : stockExchangeRepository.findAllById(affectedExchangeIds)) {
+            outbox.exchangeChanged(ExchangeDto.from(exchange, stockExchangeRepository.findStockIdsByExchangeId(exchange.getId())));
+        }
+        eventPublisher.publishEvent(new StockDeletedEvent(stockId, affectedExchangeIds));
     }
 
+
+    // Native results carry whatever type the driver maps the TIMESTAMP column to
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant instant) return instant;
+        if (value instanceof OffsetDateTime offset) return offset.toInstant();
+        return ((Timestamp) value).toInstant();
+    }
 }
@@ -0,0 +1,159 @@
+package com.stockmanager.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.stockmanager.entity.OutboxEvent;
+
+/**
+ * The last {@code app.ticks.replay-buffer-size} messages the {@link OutboxRelay} published, each
+ * stamped with a gap-free sequence number, so a reconnecting client can fetch just what it missed;
+ * and the latest published state of every stock and exchange, so a new subscriber can start from
+ * a snapshot that is exact as of a sequence without touching the database.
+ * <p>
+ * Sequences restart at 1 with a new {@link #epoch()} whenever the process starts; a client holding
+ * a sequence from another epoch cannot resume and needs a snapshot. The state is loaded from the
+ * database before the relay starts (see {@link TickJournalLoader}).
+ * <p>
+ * A {@link EventOutbox#STOCKS_BATCH_TOPIC} message is kept whole for replay, but its array is
+ * split into one stock state per element, so snapshots list batch-created stocks like any other.
+ */
+@Component
+public class TickJournal {
+    public record Tick(long sequence, String destination, Long stockId, Long stockSequence, Long exchangeId,
+                       byte[] payload) {}
+
+    // Current stocks and exchanges (the last message published for each) as of sequence
+    public record Snapshot(String epoch, long sequence, List<Tick> stocks, List<Tick> exchanges) {}
+
+    private static final Comparator<Tick> BY_STOCK = Comparator.comparing(Tick::stockId);
+    private static final Comparator<Tick> BY_EXCHANGE = Comparator.comparing(Tick::exchangeId);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final Tick[] ring;
+    private long lastSequence;
+    private final Map<Long, Tick> stocks = new HashMap<>();
+    private final Map<Long, Tick> exchanges = new HashMap<>();
+
+    public TickJournal(@Value("${app.ticks.replay-buffer-size:10000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("app.ticks.replay-buffer-size must be positive");
+        }
+        this.ring = new Tick[capacity];
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    // Called by the relay thread just before it sends the event
+    public synchronized Tick record(OutboxEvent event) {
+        Tick tick = new Tick(++lastSequence, event.getDestination(), event.getStockId(),
+                event.getStockSequence(), event.getExchangeId(), event.getPayload());
+        ring[(int) (tick.sequence() % ring.length)] = tick;
+        apply(tick);
+        return tick;
+    }
+
+    // Initial state read from the database, as sequence 0; never replaces anything newer
+    public synchronized void load(Tick tick) {
+        apply(tick);
+    }
+
+    // Deletions stay in the maps so a re-sent older message cannot bring the entry back
+    private void apply(Tick tick) {
+        if (EventOutbox.STOCKS_BATCH_TOPIC.equals(tick.destination())) {
+            split(tick).forEach(this::apply);
+        } else if (tick.stockId() != null) {
+            Tick current = stocks.get(tick.stockId());
+            if (current == null || current.stockSequence() < tick.stockSequence()) stocks.put(tick.stockId(), tick);
+        } else if (tick.exchangeId() != null) {
+            // Exchanges carry no version: loaded state only fills gaps, published messages always win
+            if (tick.sequence() > 0 || !exchanges.containsKey(tick.exchangeId())) exchanges.put(tick.exchangeId(), tick);
+        }
+    }
+
+    // Each element of the batch's array as a /topic/stocks tick of its own, sliced out of the payload
+    private static List<Tick> split(Tick batch) {
+        byte[] payload = batch.payload();
+        List<Tick> ticks = new ArrayList<>();
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) return ticks;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int start = (int) parser.currentTokenLocation().getByteOffset();
+                Long stockId = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    boolean id = "id".equals(parser.currentName());
+                    parser.nextToken();
+                    if (id) stockId = parser.getLongValue();
+                    else parser.skipChildren();
+                }
+                int end = (int) parser.currentLocation().getByteOffset();
+                if (stockId != null) {
+                    ticks.add(new Tick(batch.sequence(), "/topic/stocks", stockId, 1L, null,
+                            Arrays.copyOfRange(payload, start, end)));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return ticks;
+    }
+
+    private static boolean isDeletion(Tick tick) {
+        return tick.destination().endsWith("/delete");
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Ticks after {@code sequence}, oldest first, or empty if some of them have already been
+     * overwritten (or {@code sequence} was never issued in {@code epoch}).
+     */
+    public Optional<List<Tick>> since(String epoch, long sequence) {
+        if (!this.epoch.equals(epoch)) return Optional.empty();
+        synchronized (this) {
+            long oldest = Math.max(1, lastSequence - ring.length + 1);
+            if (sequence < oldest - 1 || sequence > lastSequence) return Optional.empty();
+            List<Tick> ticks = new ArrayList<>((int) (lastSequence - sequence));
+            for (long s = sequence + 1; s <= lastSequence; s++) {
+                ticks.add(ring[(int) (s % ring.length)]);
+            }
+            return Optional.of(ticks);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long sequence;
+        List<Tick> stockTicks;
+        List<Tick> exchangeTicks;
+        synchronized (this) {
+            sequence = lastSequence;
+            stockTicks = new ArrayList<>(stocks.values());
+            exchangeTicks = new ArrayList<>(exchanges.values());
+        }
+        // Filtered and sorted outside the lock so the relay is not held up
+        stockTicks.removeIf(TickJournal::isDeletion);
+        stockTicks.sort(BY_STOCK);
+        exchangeTicks.removeIf(TickJournal::isDeletion);
+        exchangeTicks.sort(BY_EXCHANGE);
+        return new Snapshot(epoch, sequence, stockTicks, exchangeTicks);
+    }
+}
@@ -0,0 +1,93 @@
+package com.stockmanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.dto.ExchangeDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.repository.StockExchangeRepository;
+import com.stockmanager.repository.StockRepository;
+
+/**
+ * Fills the {@link TickJournal}'s current state from the database at startup, in the phase just
+ * before the {@link OutboxRelay} starts, so that every change committed later (or committed but
+ * not yet relayed) reaches the journal as a message applied on top.
+ */
+@Component
+public class TickJournalLoader implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TickJournalLoader.class);
+
+    private final TickJournal journal;
+    private final StockRepository stockRepository;
+    private final StockExchangeRepository exchangeRepository;
+    private final StockJsonCache stockJsonCache;
+    private final ObjectMapper objectMapper;
+    // Read-write on purpose: a lagging replica could miss changes that were already relayed
+    private final TransactionTemplate transaction;
+    private volatile boolean running;
+
+    public TickJournalLoader(TickJournal journal,
+                             StockRepository stockRepository,
+                             StockExchangeRepository exchangeRepository,
+                             StockJsonCache stockJsonCache,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.journal = journal;
+        this.stockRepository = stockRepository;
+        this.exchangeRepository = exchangeRepository;
+        this.stockJsonCache = stockJsonCache;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        int[] counts = transaction.execute(status -> load());
+        log.info("Loaded {} stocks and {} exchanges into the tick journal in {} ms",
+                counts[0], counts[1], (System.nanoTime() - start) / 1_000_000);
+        running = true;
+    }
+
+    private int[] load() {
+        int stocks = 0;
+        int exchanges = 0;
+        for (Stock stock : stockRepository.findAll()) {
+            journal.load(new TickJournal.Tick(0, "/topic/stocks", stock.getId(), stock.getEventSequence(), null,
+                    stockJsonCache.serialize(stock)));
+            stocks++;
+        }
+        for (StockExchange exchange : exchangeRepository.findAll()) {
+            try {
+                journal.load(new TickJournal.Tick(0, "/topic/exchanges", null, null, exchange.getId(),
+                        objectMapper.writeValueAsBytes(ExchangeDto.from(exchange))));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Could not serialize exchange " + exchange.getId(), ex);
+            }
+            exchanges++;
+        }
+        return new int[] {stocks, exchanges};
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
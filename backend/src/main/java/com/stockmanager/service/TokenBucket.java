@@ -0,0 +1,38 @@
+package com.stockmanager.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time" on
+ * the nano clock, advanced by one emission interval per admitted request with a CAS. A request
+ * is admitted while that time stays within {@code burst} intervals of now.
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong tat;
+
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+        this.tat = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if admitted, otherwise how many nanoseconds until a request would be
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long allowAt = next - toleranceNanos;
+            if (allowAt > nowNanos) return allowAt - nowNanos;
+            if (tat.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    // A bucket that has fully refilled is indistinguishable from a new one
+    public boolean isIdle(long nowNanos) {
+        return tat.get() <= nowNanos;
+    }
+}
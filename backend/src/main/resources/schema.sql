@@ -3,7 +3,10 @@ CREATE TABLE IF NOT EXISTS stock (
   name VARCHAR(255) UNIQUE NOT NULL,
   description VARCHAR(1000),
   current_price DECIMAL(19,4) NOT NULL,
-  last_update TIMESTAMP NOT NULL
+  last_update TIMESTAMP NOT NULL,
+  event_sequence BIGINT NOT NULL DEFAULT 0,
+  source_timestamp TIMESTAMP,
+  source_sequence BIGINT
 );
 
 CREATE TABLE IF NOT EXISTS stock_exchange (
@@ -28,3 +31,62 @@ CREATE TABLE IF NOT EXISTS stock_price_history (
   timestamp TIMESTAMP NOT NULL,
   FOREIGN KEY (stock_id) REFERENCES stock(id) ON DELETE CASCADE
 );
+
+CREATE INDEX IF NOT EXISTS idx_stock_price_history_stock_ts ON stock_price_history (stock_id, timestamp);
+
+CREATE TABLE IF NOT EXISTS exchange_index_history (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  exchange_id BIGINT NOT NULL,
+  equal_weighted DECIMAL(19,4) NOT NULL,
+  price_weighted DECIMAL(19,4) NOT NULL,
+  constituents INT NOT NULL,
+  timestamp TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_exchange_index_history_exchange_ts ON exchange_index_history (exchange_id, timestamp);
+
+CREATE TABLE IF NOT EXISTS price_alert (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  username VARCHAR(255) NOT NULL,
+  stock_id BIGINT NOT NULL,
+  threshold DECIMAL(19,4) NOT NULL,
+  direction VARCHAR(10) NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  triggered_at TIMESTAMP,
+  triggered_price DECIMAL(19,4)
+);
+
+CREATE INDEX IF NOT EXISTS idx_price_alert_username ON price_alert (username);
+CREATE INDEX IF NOT EXISTS idx_price_alert_stock ON price_alert (stock_id);
+
+CREATE TABLE IF NOT EXISTS refresh_token (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  token_hash VARCHAR(64) NOT NULL,
+  family_id VARCHAR(36) NOT NULL,
+  username VARCHAR(255) NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  expires_at TIMESTAMP NOT NULL,
+  used_at TIMESTAMP,
+  revoked_at TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_token_hash ON refresh_token (token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_family ON refresh_token (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_username ON refresh_token (username);
+
+-- STOMP messages written with the change that caused them; drained and deleted by OutboxRelay
+CREATE TABLE IF NOT EXISTS outbox_event (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  destination VARCHAR(255) NOT NULL,
+  payload VARBINARY(1000000) NOT NULL,
+  stock_id BIGINT,
+  stock_sequence BIGINT,
+  exchange_id BIGINT,
+  created_at TIMESTAMP NOT NULL
+);
+
+-- Stamped on the primary by ReplicaMonitor and read back from the read replica to measure its lag
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+  id INT PRIMARY KEY,
+  beat_at BIGINT NOT NULL
+);
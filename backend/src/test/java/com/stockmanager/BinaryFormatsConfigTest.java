@@ -0,0 +1,60 @@
+package com.stockmanager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import com.stockmanager.config.BinaryFormatsConfig;
+import com.stockmanager.dto.PriceHistoryColumnsDto;
+import com.stockmanager.entity.StockPriceHistory;
+import com.stockmanager.service.ResourceVersions;
+
+public class BinaryFormatsConfigTest {
+
+    @Test
+    public void jsonIsKeptForBrowsersAndMissingHeaders() {
+        assertNull(BinaryFormatsConfig.preferredBinary(null));
+        assertNull(BinaryFormatsConfig.preferredBinary("application/json, text/plain, */*"));
+        assertNull(BinaryFormatsConfig.preferredBinary("*/*"));
+        assertNull(BinaryFormatsConfig.preferredBinary("not a media type;;"));
+    }
+
+    @Test
+    public void binaryIsChosenWhenRankedAboveJson() {
+        assertEquals(MediaType.APPLICATION_CBOR, BinaryFormatsConfig.preferredBinary("application/cbor"));
+        assertEquals(BinaryFormatsConfig.SMILE,
+                BinaryFormatsConfig.preferredBinary("application/json;q=0.5, application/x-jackson-smile"));
+        assertNull(BinaryFormatsConfig.preferredBinary("application/cbor;q=0.5, application/json"));
+        assertEquals(MediaType.APPLICATION_CBOR, BinaryFormatsConfig.preferredBinary("application/cbor, */*"));
+    }
+
+    @Test
+    public void variantEtagsStayQuotedAndDistinct() {
+        assertEquals("\"e-s-3-cbor\"", ResourceVersions.variant("\"e-s-3\"", "cbor"));
+    }
+
+    @Test
+    public void columnarHistoryKeepsRowOrder() {
+        Instant t0 = Instant.parse("2024-01-01T00:00:00Z");
+        StockPriceHistory first = new StockPriceHistory();
+        first.setTimestamp(t0);
+        first.setPrice(new BigDecimal("10.50"));
+        StockPriceHistory second = new StockPriceHistory();
+        second.setTimestamp(t0.plusSeconds(1));
+        second.setPrice(new BigDecimal("11.25"));
+
+        PriceHistoryColumnsDto dto = PriceHistoryColumnsDto.from(7L, List.of(first, second));
+
+        long millis = t0.toEpochMilli();
+        assertEquals(7L, dto.getStockId());
+        assertArrayEquals(new long[] { millis, millis + 1000 }, dto.getTimestamps());
+        assertArrayEquals(new double[] { 10.50, 11.25 }, dto.getPrices());
+    }
+}
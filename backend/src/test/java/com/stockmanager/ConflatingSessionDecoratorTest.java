@@ -0,0 +1,130 @@
+package com.stockmanager;
+import com.stockmanager.config.ConflatingSessionDecorator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ConflatingSessionDecoratorTest {
+
+    private WebSocketSession raw;
+    // Sender tasks run only when the test says so, standing in for a session that is lagging
+    private final Queue<Runnable> senderTasks = new ArrayDeque<>();
+    private final AtomicInteger conflated = new AtomicInteger();
+    private final AtomicInteger overflows = new AtomicInteger();
+    private ConflatingSessionDecorator session;
+
+    @BeforeEach
+    public void setup() {
+        raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        session = new ConflatingSessionDecorator(raw, senderTasks::add, 1000,
+                conflated::incrementAndGet, overflows::incrementAndGet);
+    }
+
+    @Test
+    public void testLaggingSessionGetsLatestTickPerStockInOrder() throws Exception {
+        session.sendMessage(tick("/topic/stocks", "sub-0", 1, "10"));
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, "x"));
+        session.sendMessage(tick("/topic/stocks", "sub-0", 2, "20"));
+        session.sendMessage(tick("/topic/stocks", "sub-0", 1, "11"));
+        session.sendMessage(tick("/topic/stocks", "sub-0", 1, "12"));
+
+        assertEquals(3, session.getPendingMessages());
+        assertEquals(2, session.getConflated());
+        assertEquals(2, conflated.get());
+
+        runSender();
+
+        assertEquals(List.of("x", "20", "12"), written());
+        assertEquals(0, session.getPendingMessages());
+        assertEquals(0, session.getPendingBytes());
+        assertEquals(3, session.getSent());
+    }
+
+    @Test
+    public void testDeletesAndOtherSubscriptionsAreNotConflated() throws Exception {
+        session.sendMessage(tick("/topic/stocks", "sub-0", 1, "10"));
+        session.sendMessage(tick("/topic/stocks", "sub-9", 1, "10"));
+        session.sendMessage(tick("/topic/stocks/delete", "sub-2", 1, "1"));
+        session.sendMessage(tick("/topic/stocks/delete", "sub-2", 1, "1"));
+
+        assertEquals(4, session.getPendingMessages());
+        assertEquals(0, session.getConflated());
+    }
+
+    @Test
+    public void testOneSenderTaskPerSession() throws Exception {
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, "a"));
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, "b"));
+
+        assertEquals(1, senderTasks.size());
+    }
+
+    @Test
+    public void testOverflowTerminatesSession() throws Exception {
+        String big = "x".repeat(600);
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, big));
+
+        SessionLimitExceededException ex = assertThrows(SessionLimitExceededException.class,
+                () -> session.sendMessage(tick("/topic/exchanges", "sub-1", null, big)));
+
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE, ex.getStatus());
+        assertEquals(1, overflows.get());
+        assertEquals(0, session.getPendingMessages());
+        runSender();
+        verify(raw, never()).sendMessage(any());
+    }
+
+    @Test
+    public void testFailedWriteClosesSession() throws Exception {
+        doThrow(new IOException("broken pipe")).when(raw).sendMessage(any());
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, "a"));
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, "b"));
+
+        runSender();
+
+        verify(raw, times(1)).sendMessage(any());
+        verify(raw).close(CloseStatus.SESSION_NOT_RELIABLE);
+        // dropped once closed
+        session.sendMessage(tick("/topic/exchanges", "sub-1", null, "c"));
+        assertEquals(0, session.getPendingMessages());
+    }
+
+    private void runSender() {
+        Runnable task;
+        while ((task = senderTasks.poll()) != null) task.run();
+    }
+
+    private List<String> written() throws IOException {
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(raw, atLeastOnce()).sendMessage(sent.capture());
+        return sent.getAllValues().stream().map(m -> {
+            String frame = m.getPayload();
+            return frame.substring(frame.indexOf("\n\n") + 2, frame.length() - 1);
+        }).toList();
+    }
+
+    private static TextMessage tick(String destination, String subscription, Integer stockId, String body) {
+        StringBuilder frame = new StringBuilder("MESSAGE\n")
+                .append("destination:").append(destination).append('\n')
+                .append("content-type:application/json\n")
+                .append("subscription:").append(subscription).append('\n');
+        if (stockId != null) frame.append("stock-id:").append(stockId).append('\n');
+        frame.append('\n').append(body).append('\0');
+        return new TextMessage(frame.toString());
+    }
+}
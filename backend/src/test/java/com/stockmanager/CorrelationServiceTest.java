@@ -0,0 +1,120 @@
+package com.stockmanager;
+import com.stockmanager.dto.CorrelationMatrixDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.entity.StockPriceHistory;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.repository.StockPriceHistoryRepository;
+import com.stockmanager.service.CorrelationService;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.warmup.iterations=0"
+})
+public class CorrelationServiceTest {
+
+    private static final Instant T0 = Instant.parse("2021-05-03T10:00:00Z");
+    private static final Duration WINDOW = Duration.ofMinutes(4);
+    private static final Duration STEP = Duration.ofMinutes(1);
+
+    @Autowired private CorrelationService correlationService;
+    @Autowired private StockService stockService;
+    @Autowired private StockExchangeService exchangeService;
+    @Autowired private StockPriceHistoryRepository historyRepository;
+
+    @Test
+    public void testCorrelationOfAlignedReturns() {
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        Stock a = listed(ex, 10, 11, 10.5, 12, 12.5);
+        Stock same = listed(ex, 20, 22, 21, 24, 25);
+        Stock inverse = listed(ex, 10, 10 / 1.1, 10 / 1.05, 10 / 1.2, 10 / 1.25);
+        Stock flat = listed(ex, 5, 5, 5, 5, 5);
+
+        CorrelationMatrixDto m = correlationService.getCorrelation(ex.getId(), WINDOW, STEP);
+
+        assertEquals(T0, m.getFrom());
+        assertEquals(T0.plus(WINDOW), m.getTo());
+        assertEquals(4, m.getReturns());
+        assertEquals(List.of(a.getId(), same.getId(), inverse.getId()), m.getStockIds());
+        assertEquals(List.of(flat.getId()), m.getExcludedStockIds());
+        assertEquals(1f, m.getCorrelation()[0][0]);
+        assertEquals(1f, m.getCorrelation()[0][1], 1e-5);
+        assertEquals(-1f, m.getCorrelation()[0][2], 1e-3);
+        assertEquals(m.getCorrelation()[0][2], m.getCorrelation()[2][0]);
+        assertEquals(m.getVolatilities()[0], m.getVolatilities()[1], 1e-9);
+    }
+
+    @Test
+    public void testTicksBetweenGridPointsCarryTheLastPriceForward() {
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        Stock a = listed(ex, 10, 11, 12, 13, 14);
+        Stock b = listed(ex, 10, 11, 12, 13, 14);
+        // Superseded before the next grid point: must not show up in the samples
+        record(b, T0.plusSeconds(90), 1000);
+        record(b, T0.plusSeconds(100), 11.5);
+
+        CorrelationMatrixDto m = correlationService.getCorrelation(ex.getId(), WINDOW, STEP);
+
+        assertEquals(List.of(a.getId(), b.getId()), m.getStockIds());
+        assertTrue(m.getCorrelation()[0][1] > 0.9);
+        assertTrue(m.getVolatilities()[1] < 0.2);
+    }
+
+    @Test
+    public void testMatrixIsCachedUntilAConstituentTicks() {
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        Stock a = listed(ex, 10, 11, 10.5, 12, 12.5);
+        listed(ex, 20, 22, 21, 24, 25);
+        Stock outsider = stockService.create(unique("O"), "d", new BigDecimal("10.00"));
+
+        CorrelationMatrixDto first = correlationService.getCorrelation(ex.getId(), WINDOW, STEP);
+        stockService.updatePrice(outsider.getId(), new BigDecimal("11.00"));
+        assertSame(first, correlationService.getCorrelation(ex.getId(), WINDOW, STEP));
+
+        stockService.updatePrice(a.getId(), new BigDecimal("13.00"));
+        assertNotSame(first, correlationService.getCorrelation(ex.getId(), WINDOW, STEP));
+    }
+
+    @Test
+    public void testWindowMustSpanTwoSteps() {
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        assertThrows(BusinessRuleException.class,
+                () -> correlationService.getCorrelation(ex.getId(), Duration.ofMinutes(1), STEP));
+    }
+
+    // A constituent with one price per minute from T0 instead of the row written when it was created
+    private Stock listed(StockExchange ex, double... prices) {
+        Stock stock = stockService.create(unique("C"), "d", new BigDecimal("10.00"));
+        historyRepository.deleteAll(historyRepository.findByStockIdOrderByTimestampAsc(stock.getId()));
+        for (int k = 0; k < prices.length; k++) {
+            record(stock, T0.plus(STEP.multipliedBy(k)), prices[k]);
+        }
+        exchangeService.addStockToExchange(ex.getId(), stock.getId());
+        return stock;
+    }
+
+    private void record(Stock stock, Instant at, double price) {
+        historyRepository.save(StockPriceHistory.builder()
+                .stock(stock)
+                .price(BigDecimal.valueOf(price))
+                .timestamp(at)
+                .build());
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID();
+    }
+}
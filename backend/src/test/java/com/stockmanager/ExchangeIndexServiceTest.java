@@ -0,0 +1,115 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.stockmanager.dto.ExchangeIndexDto;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockMembershipChangedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.repository.ExchangeIndexHistoryRepository;
+import com.stockmanager.repository.StockExchangeRepository;
+import com.stockmanager.service.ExchangeIndexService;
+
+public class ExchangeIndexServiceTest {
+
+    private StockExchangeRepository exchangeRepository;
+    private ExchangeIndexHistoryRepository historyRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private ExchangeIndexService service;
+
+    @BeforeEach
+    public void setup() {
+        exchangeRepository = mock(StockExchangeRepository.class);
+        historyRepository = mock(ExchangeIndexHistoryRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        when(exchangeRepository.findAllMembershipsWithPrice()).thenReturn(List.of(
+                new Object[]{1L, 10L, new BigDecimal("100")},
+                new Object[]{1L, 11L, new BigDecimal("50")}));
+        service = new ExchangeIndexService(exchangeRepository, historyRepository, messagingTemplate);
+        service.load();
+    }
+
+    private void tick(long stockId, String previous, String price) {
+        service.onPriceChanged(new StockPriceChangedEvent(stockId, new BigDecimal(previous), new BigDecimal(price), Instant.now()));
+    }
+
+    @Test
+    public void testSeededIndexStartsAtBaseAndAveragePrice() {
+        ExchangeIndexDto idx = service.getIndex(1L);
+
+        assertEquals(2, idx.getConstituents());
+        assertEquals(0, new BigDecimal("100").compareTo(idx.getEqualWeighted()));
+        assertEquals(0, new BigDecimal("75").compareTo(idx.getPriceWeighted()));
+    }
+
+    @Test
+    public void testTickMovesBothIndexes() {
+        tick(10L, "100", "110"); // +10% on one of two constituents
+
+        ExchangeIndexDto idx = service.getIndex(1L);
+
+        assertEquals(0, new BigDecimal("105").compareTo(idx.getEqualWeighted()));
+        assertEquals(0, new BigDecimal("80").compareTo(idx.getPriceWeighted()));
+    }
+
+    @Test
+    public void testMembershipChangesDoNotJumpTheIndex() {
+        tick(10L, "100", "110");
+        service.onMembershipChanged(new StockMembershipChangedEvent(1L, 12L, new BigDecimal("400"), true));
+
+        ExchangeIndexDto afterAdd = service.getIndex(1L);
+        assertEquals(3, afterAdd.getConstituents());
+        assertEquals(0, new BigDecimal("80").compareTo(afterAdd.getPriceWeighted()));
+        assertEquals(0, new BigDecimal("105").compareTo(afterAdd.getEqualWeighted()));
+
+        service.onStockDeleted(new StockDeletedEvent(11L, List.of(1L)));
+        ExchangeIndexDto afterDelete = service.getIndex(1L);
+        assertEquals(2, afterDelete.getConstituents());
+        assertEquals(0, new BigDecimal("80").compareTo(afterDelete.getPriceWeighted()));
+    }
+
+    @Test
+    public void testTicksForUnlistedStocksAreIgnored() {
+        tick(99L, "1", "2");
+
+        assertEquals(0, new BigDecimal("75").compareTo(service.getIndex(1L).getPriceWeighted()));
+    }
+
+    @Test
+    public void testPublishIsConflatedPerInterval() {
+        service.publishDirty(); // initial value after seeding
+        tick(10L, "100", "101");
+        tick(10L, "101", "102");
+        tick(11L, "50", "51");
+        service.publishDirty();
+        service.publishDirty(); // nothing changed since
+
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/exchanges/1/index"), any(ExchangeIndexDto.class));
+        verify(historyRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    public void testRemovingLastConstituentEmptiesIndex() {
+        service.onMembershipChanged(new StockMembershipChangedEvent(1L, 10L, null, false));
+        service.onMembershipChanged(new StockMembershipChangedEvent(1L, 11L, null, false));
+
+        ExchangeIndexDto idx = service.getIndex(1L);
+        assertEquals(0, idx.getConstituents());
+        verify(historyRepository, never()).deleteByExchangeId(1L);
+    }
+}
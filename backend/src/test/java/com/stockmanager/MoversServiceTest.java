@@ -0,0 +1,126 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.stockmanager.dto.MoverDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.MoversService;
+import com.stockmanager.service.MoversService.Type;
+
+public class MoversServiceTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private MoversService service;
+
+    @BeforeEach
+    public void setup() {
+        StockRepository stockRepository = mock(StockRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        when(stockRepository.findAll()).thenReturn(List.of(stock(1L, "A"), stock(2L, "B"), stock(3L, "C")));
+        service = new MoversService(stockRepository, messagingTemplate, 20);
+        service.load();
+    }
+
+    private static Stock stock(Long id, String name) {
+        Stock s = new Stock();
+        s.setId(id);
+        s.setName(name);
+        s.setCurrentPrice(new BigDecimal("100"));
+        return s;
+    }
+
+    private void tick(Long id, String price) {
+        service.onPriceChanged(new StockPriceChangedEvent(id, null, new BigDecimal(price), Instant.now()));
+    }
+
+    private static List<Long> ids(List<MoverDto> movers) {
+        return movers.stream().map(MoverDto::getStockId).toList();
+    }
+
+    @Test
+    public void ranksByPercentChangeFromReference() {
+        tick(1L, "105");
+        tick(2L, "110");
+        tick(3L, "90");
+
+        assertEquals(List.of(2L, 1L), ids(service.top(Type.GAINERS, 20)));
+        assertEquals(List.of(3L), ids(service.top(Type.LOSERS, 20)));
+        assertEquals(0, new BigDecimal("10").compareTo(service.top(Type.GAINERS, 1).get(0).getChangePercent()));
+    }
+
+    @Test
+    public void tickRepositionsExistingEntry() {
+        tick(1L, "105");
+        tick(2L, "110");
+        tick(1L, "120");
+
+        assertEquals(List.of(1L, 2L), ids(service.top(Type.GAINERS, 20)));
+        tick(1L, "80");
+        assertEquals(List.of(2L), ids(service.top(Type.GAINERS, 20)));
+        assertEquals(List.of(1L), ids(service.top(Type.LOSERS, 20)));
+    }
+
+    @Test
+    public void limitsToK() {
+        tick(1L, "101");
+        tick(2L, "102");
+        tick(3L, "103");
+
+        assertEquals(List.of(3L, 2L), ids(service.top(Type.GAINERS, 2)));
+        assertThrows(BusinessRuleException.class, () -> service.top(Type.GAINERS, 0));
+    }
+
+    @Test
+    public void createdAndDeletedStocksEnterAndLeave() {
+        service.onStockCreated(new StockCreatedEvent(4L, "D", new BigDecimal("50"), Instant.now()));
+        tick(4L, "75");
+        tick(1L, "110");
+        assertEquals(List.of(4L, 1L), ids(service.top(Type.GAINERS, 20)));
+
+        service.onStockDeleted(new StockDeletedEvent(4L, List.of()));
+        assertEquals(List.of(1L), ids(service.top(Type.GAINERS, 20)));
+    }
+
+    @Test
+    public void resetMakesCurrentPriceTheReference() {
+        tick(1L, "120");
+        service.resetReference();
+        assertTrue(service.top(Type.GAINERS, 20).isEmpty());
+
+        tick(1L, "132");
+        assertEquals(0, new BigDecimal("10").compareTo(service.top(Type.GAINERS, 1).get(0).getChangePercent()));
+    }
+
+    @Test
+    public void publishIsConflated() {
+        tick(1L, "101");
+        tick(1L, "102");
+        service.publish();
+        service.publish();
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/movers"), any(Object.class));
+
+        tick(2L, "99");
+        service.publish();
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/movers"), any(Object.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.stockmanager;
+import com.stockmanager.entity.OutboxEvent;
+import com.stockmanager.repository.OutboxEventRepository;
+import com.stockmanager.service.OutboxRelay;
+import com.stockmanager.service.TickJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class OutboxRelayTest {
+
+    private OutboxEventRepository repository;
+    private SimpMessagingTemplate messagingTemplate;
+    private TickJournal journal;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    public void setup() {
+        repository = mock(OutboxEventRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        journal = new TickJournal(100);
+        relay = new OutboxRelay(repository, messagingTemplate, journal, 2, 1000);
+    }
+
+    @Test
+    public void testDrainSendsOldestFirstThenDeletes() {
+        OutboxEvent first = event(1L, "/topic/stocks", 5L, 1L);
+        OutboxEvent second = event(2L, "/topic/exchanges", null, null);
+        when(repository.findOldest(any(Pageable.class))).thenReturn(List.of(first, second));
+
+        assertEquals(2, relay.drainBatch());
+
+        InOrder order = inOrder(messagingTemplate, repository);
+        order.verify(messagingTemplate).send(eq("/topic/stocks"), any());
+        order.verify(messagingTemplate).send(eq("/topic/exchanges"), any());
+        order.verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    public void testRequestsOneBatch() {
+        when(repository.findOldest(any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, relay.drainBatch());
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(repository).findOldest(page.capture());
+        assertEquals(2, page.getValue().getPageSize());
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testStockEventsCarrySequenceHeaders() {
+        when(repository.findOldest(any(Pageable.class))).thenReturn(List.of(event(1L, "/topic/stocks", 5L, 9L)));
+
+        relay.drainBatch();
+
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq("/topic/stocks"), sent.capture());
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(sent.getValue());
+        assertEquals("5", headers.getFirstNativeHeader(OutboxRelay.STOCK_ID_HEADER));
+        assertEquals("9", headers.getFirstNativeHeader(OutboxRelay.STOCK_SEQUENCE_HEADER));
+        assertEquals("application/json", headers.getContentType().toString());
+        assertEquals("{}", new String((byte[]) sent.getValue().getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEveryMessageCarriesGlobalSequenceAndEpoch() {
+        when(repository.findOldest(any(Pageable.class)))
+                .thenReturn(List.of(event(1L, "/topic/stocks", 5L, 9L), event(2L, "/topic/exchanges", null, null)));
+
+        relay.drainBatch();
+
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(2)).send(anyString(), sent.capture());
+        for (int i = 0; i < 2; i++) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(sent.getAllValues().get(i));
+            assertEquals(String.valueOf(i + 1), headers.getFirstNativeHeader(OutboxRelay.SEQUENCE_HEADER));
+            assertEquals(journal.epoch(), headers.getFirstNativeHeader(OutboxRelay.EPOCH_HEADER));
+        }
+        assertEquals(2, journal.lastSequence());
+        assertEquals("/topic/exchanges", journal.since(journal.epoch(), 1).orElseThrow().get(0).destination());
+    }
+
+    @Test
+    public void testFailedSendKeepsRows() {
+        when(repository.findOldest(any(Pageable.class))).thenReturn(List.of(event(1L, "/topic/stocks", 5L, 1L)));
+        doThrow(new IllegalStateException("broker down")).when(messagingTemplate).send(anyString(), any());
+
+        assertThrows(IllegalStateException.class, () -> relay.drainBatch());
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static OutboxEvent event(Long id, String destination, Long stockId, Long sequence) {
+        return OutboxEvent.builder()
+                .id(id)
+                .destination(destination)
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .stockId(stockId)
+                .stockSequence(sequence)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.stockmanager.dto.PriceAlertDto;
+import com.stockmanager.entity.AlertDirection;
+import com.stockmanager.entity.PriceAlert;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.repository.PriceAlertRepository;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.PriceAlertService;
+
+public class PriceAlertServiceTest {
+
+    private PriceAlertRepository alertRepository;
+    private StockRepository stockRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private PriceAlertService service;
+    private long nextId = 1;
+
+    @BeforeEach
+    public void setup() {
+        alertRepository = mock(PriceAlertRepository.class);
+        stockRepository = mock(StockRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        service = new PriceAlertService(alertRepository, stockRepository, messagingTemplate);
+
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setCurrentPrice(new BigDecimal("100"));
+        when(stockRepository.findById(1L)).thenReturn(Optional.of(s));
+        when(alertRepository.save(any())).thenAnswer(i -> {
+            PriceAlert a = i.getArgument(0);
+            a.setId(nextId++);
+            return a;
+        });
+    }
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void tick(String price) {
+        service.onPriceChanged(new StockPriceChangedEvent(1L, null, new BigDecimal(price), Instant.now()));
+    }
+
+    @Test
+    public void testDirectionInferredFromCurrentPrice() {
+        assertEquals(AlertDirection.ABOVE, service.create("alice", 1L, new BigDecimal("110"), null).getDirection());
+        assertEquals(AlertDirection.BELOW, service.create("alice", 1L, new BigDecimal("90"), null).getDirection());
+    }
+
+    @Test
+    public void testAlreadyCrossedThresholdIsRejected() {
+        assertThrows(BusinessRuleException.class,
+                () -> service.create("alice", 1L, new BigDecimal("90"), AlertDirection.ABOVE));
+    }
+
+    @Test
+    public void testTickFiresOnlyCrossedAlertsOnce() {
+        service.create("alice", 1L, new BigDecimal("105"), null);
+        service.create("bob", 1L, new BigDecimal("110"), null);
+        service.create("carol", 1L, new BigDecimal("95"), null);
+
+        tick("106");
+
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/alerts"), any(PriceAlertDto.class));
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("bob"), any(), any());
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("carol"), any(), any());
+        verify(alertRepository).markTriggered(eq(List.of(1L)), any(), eq(new BigDecimal("106")));
+
+        tick("104");
+        tick("106");
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("alice"), any(), any());
+
+        tick("94");
+        verify(messagingTemplate).convertAndSendToUser(eq("carol"), eq("/queue/alerts"), any(PriceAlertDto.class));
+    }
+
+    @Test
+    public void testExactThresholdFires() {
+        service.create("alice", 1L, new BigDecimal("105.00"), null);
+
+        tick("105");
+
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/alerts"), any(PriceAlertDto.class));
+    }
+
+    @Test
+    public void testDeletedAlertDoesNotFire() {
+        PriceAlert alert = service.create("alice", 1L, new BigDecimal("105"), null);
+        when(alertRepository.findById(alert.getId())).thenReturn(Optional.of(alert));
+
+        service.delete(alert.getId(), "alice");
+        tick("120");
+
+        verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+        verify(alertRepository, never()).markTriggered(anyList(), any(), any());
+    }
+
+    @Test
+    public void testAlertIsIndexedOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.create("alice", 1L, new BigDecimal("105"), null);
+
+        tick("106"); // before commit, e.g. a rollback
+        verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        tick("106");
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/alerts"), any(PriceAlertDto.class));
+    }
+
+    @Test
+    public void testRolledBackDeleteKeepsAlertIndexed() {
+        PriceAlert alert = service.create("alice", 1L, new BigDecimal("105"), null);
+        when(alertRepository.findById(alert.getId())).thenReturn(Optional.of(alert));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.delete(alert.getId(), "alice");
+        TransactionSynchronizationManager.clearSynchronization(); // rolled back: afterCommit never runs
+
+        tick("120");
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/alerts"), any(PriceAlertDto.class));
+    }
+}
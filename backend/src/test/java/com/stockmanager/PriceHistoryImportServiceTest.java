@@ -0,0 +1,256 @@
+package com.stockmanager;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockExchangeRepository;
+import com.stockmanager.repository.StockPriceHistoryRepository;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.EventOutbox;
+import com.stockmanager.service.HistoryImportJob;
+import com.stockmanager.service.PriceHistoryImportService;
+import com.stockmanager.service.PriceUpdateDeduplicator;
+import com.stockmanager.service.ResourceVersions;
+import com.stockmanager.service.StockJsonCache;
+import com.stockmanager.service.StockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PriceHistoryImportServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final int CHUNK_LINES = 3;
+
+    private StockRepository stockRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private EventOutbox outbox;
+    private ResourceVersions versions;
+    private Map<Long, Stock> stocks;
+    private PriceHistoryImportService service;
+
+    @BeforeEach
+    public void setup() {
+        stockRepository = mock(StockRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        outbox = mock(EventOutbox.class);
+        versions = new ResourceVersions();
+
+        stocks = List.of(
+                stock(1L, "Alpha", "10.00", "2025-12-01T00:00:00Z"),
+                stock(2L, "Beta, Inc", "20.00", "2025-12-01T00:00:00Z"),
+                stock(3L, "Gamma", "30.00", "2025-12-01T00:00:00Z")
+        ).stream().collect(Collectors.toMap(Stock::getId, Function.identity()));
+        when(stockRepository.findAll()).thenReturn(new ArrayList<>(stocks.values()));
+        when(stockRepository.findAllByIdForUpdate(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().sorted().map(stocks::get).toList();
+        });
+
+        StockService stockService = new StockService(stockRepository, mock(StockExchangeRepository.class),
+                mock(StockPriceHistoryRepository.class), eventPublisher, versions, outbox,
+                new PriceUpdateDeduplicator(stockRepository, new SimpleMeterRegistry()),
+                new StockJsonCache(new ObjectMapper()));
+        service = new PriceHistoryImportService(stockRepository, stockService, versions, jdbcTemplate,
+                BATCH_SIZE, CHUNK_LINES, 2, 3_600_000);
+    }
+
+    @Test
+    public void testSubmitSpoolsUploadBeforeReturning() throws Exception {
+        ByteArrayInputStream upload = csv("Alpha,2026-01-01T00:00:00Z,11.00");
+
+        HistoryImportJob job = service.submit(upload, "ticks.csv");
+
+        // The request can finish (and close its stream) while the import is still queued
+        assertEquals(0, upload.available());
+        assertSame(job, service.getJob(job.getId()));
+        awaitDone(job);
+        assertEquals(HistoryImportJob.State.COMPLETED, job.getState());
+        assertEquals("ticks.csv", job.getSource());
+        assertEquals(1, job.getRowsInserted().get());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRowsAreInsertedInBatchesWithinEachChunk() throws Exception {
+        // 7 rows in chunks of 3, 3 and 1, each flushed in batches of at most 2
+        HistoryImportJob job = importCsv(
+                "Alpha,2026-01-01T00:00:00Z,11.00",
+                "Alpha,2026-01-02T00:00:00Z,12.00",
+                "Alpha,2026-01-03T00:00:00Z,13.00",
+                "Beta, Inc,2026-01-01T00:00:00Z,21.00",
+                "Beta, Inc,2026-01-02T00:00:00Z,22.00",
+                "Beta, Inc,2026-01-03T00:00:00Z,23.00",
+                "Gamma,2026-01-01T00:00:00Z,31.00");
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(5)).batchUpdate(anyString(), batches.capture());
+        assertTrue(batches.getAllValues().stream().allMatch(b -> b.size() <= BATCH_SIZE));
+        assertEquals(7, batches.getAllValues().stream().mapToInt(List::size).sum());
+        assertEquals(7, job.getRowsRead().get());
+        assertEquals(7, job.getRowsInserted().get());
+        assertEquals(0, job.getRowsRejected().get());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testResolvesNamesFromSnapshotThenRepositoryOnce() throws Exception {
+        Stock delta = stock(4L, "Delta", "40.00", "2025-12-01T00:00:00Z");
+        stocks.put(4L, delta);
+        when(stockRepository.findByName("Delta")).thenReturn(Optional.of(delta));
+
+        HistoryImportJob job = importCsv(
+                "\"Beta, Inc\",2026-01-01T00:00:00Z,21.00",
+                "Delta,2026-01-01T00:00:00Z,41.00",
+                "Delta,1767312000000,42.00");
+
+        assertEquals(3, job.getRowsInserted().get());
+        verify(stockRepository, times(1)).findByName("Delta");
+        verify(stockRepository, never()).findByName("Beta, Inc");
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), batches.capture());
+        List<Object> stockIds = batches.getAllValues().stream().flatMap(List::stream).map(row -> row[0]).toList();
+        assertEquals(1, stockIds.stream().filter(id -> id.equals(2L)).count());
+        assertEquals(2, stockIds.stream().filter(id -> id.equals(4L)).count());
+    }
+
+    @Test
+    public void testRejectsHeaderMalformedAndUnknownRows() throws Exception {
+        when(stockRepository.findByName("Unknown")).thenReturn(Optional.empty());
+
+        HistoryImportJob job = importCsv(
+                "name,timestamp,price",
+                "Alpha,2026-01-01T00:00:00Z,11.00",
+                "Alpha,not-a-time,11.00",
+                "Alpha,2026-01-01T00:00:00Z,abc",
+                "Alpha,2026-01-01T00:00:00Z,-1",
+                "Alpha,2026-01-01T00:00:00Z",
+                "Unknown,2026-01-01T00:00:00Z,1.00",
+                "Unknown,2026-01-02T00:00:00Z,1.00");
+
+        assertEquals(HistoryImportJob.State.COMPLETED, job.getState());
+        assertEquals(8, job.getRowsRead().get());
+        assertEquals(1, job.getRowsInserted().get());
+        assertEquals(7, job.getRowsRejected().get());
+        verify(stockRepository, times(1)).findByName("Unknown");
+    }
+
+    @Test
+    public void testAdvancesOnlyStocksWhoseLastUpdateIsOlder() throws Exception {
+        stocks.get(2L).setLastUpdate(Instant.parse("2026-02-01T00:00:00Z")); // a live tick after the file
+
+        HistoryImportJob job = importCsv(
+                "Alpha,2026-01-02T00:00:00Z,12.00",
+                "Alpha,2026-01-01T00:00:00Z,11.00",
+                "Beta, Inc,2026-01-01T00:00:00Z,21.00",
+                "Gamma,2026-01-01T00:00:00Z,31.00");
+
+        assertEquals(2, job.getQuotesAdvanced().get());
+        // Three stocks advanced in chunks of BATCH_SIZE
+        verify(stockRepository, times(2)).findAllByIdForUpdate(anyCollection());
+
+        Stock alpha = stocks.get(1L);
+        assertEquals(new BigDecimal("12.00"), alpha.getCurrentPrice());
+        assertEquals(Instant.parse("2026-01-02T00:00:00Z"), alpha.getLastUpdate());
+        assertEquals(1L, alpha.getEventSequence());
+        verify(outbox).stockChanged(alpha);
+        verify(outbox).stockChanged(stocks.get(3L));
+
+        Stock beta = stocks.get(2L);
+        assertEquals(new BigDecimal("20.00"), beta.getCurrentPrice());
+        assertEquals(0L, beta.getEventSequence());
+        verify(outbox, never()).stockChanged(beta);
+
+        ArgumentCaptor<StockPriceChangedEvent> events = ArgumentCaptor.forClass(StockPriceChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        StockPriceChangedEvent alphaEvent = events.getAllValues().stream()
+                .filter(e -> e.getStockId().equals(1L)).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("10.00"), alphaEvent.getPreviousPrice());
+        assertEquals(new BigDecimal("12.00"), alphaEvent.getPrice());
+        assertEquals(Instant.parse("2026-01-02T00:00:00Z"), alphaEvent.getTimestamp());
+    }
+
+    @Test
+    public void testNothingAdvancedPublishesNothing() throws Exception {
+        stocks.get(1L).setLastUpdate(Instant.parse("2026-02-01T00:00:00Z"));
+
+        HistoryImportJob job = importCsv("Alpha,2026-01-01T00:00:00Z,11.00");
+
+        assertEquals(1, job.getRowsInserted().get());
+        assertEquals(0, job.getQuotesAdvanced().get());
+        verify(outbox, never()).stockChanged(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO stock_price_history (stock_id, price, timestamp) VALUES (?, ?, ?)"), anyList());
+    }
+
+    @Test
+    public void testFinishedJobsArePrunedAfterTheRetentionPeriod() throws Exception {
+        service = new PriceHistoryImportService(stockRepository, mock(StockService.class), versions, jdbcTemplate,
+                BATCH_SIZE, CHUNK_LINES, 2, 0);
+        HistoryImportJob finished = importCsv("Alpha,2026-01-01T00:00:00Z,11.00");
+
+        // Submitting prunes; the new job itself is kept until it finishes
+        HistoryImportJob next = service.submit(csv("Alpha,2026-01-02T00:00:00Z,12.00"), "next.csv");
+        assertThrows(NotFoundException.class, () -> service.getJob(finished.getId()));
+        assertSame(next, service.getJob(next.getId()));
+
+        awaitDone(next);
+        assertTrue(service.listJobs().isEmpty());
+    }
+
+    private HistoryImportJob importCsv(String... lines) throws Exception {
+        HistoryImportJob job = service.submit(csv(lines), "test.csv");
+        awaitDone(job);
+        assertEquals(HistoryImportJob.State.COMPLETED, job.getState(), job.getError());
+        return job;
+    }
+
+    private static void awaitDone(HistoryImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (job.getState() == HistoryImportJob.State.QUEUED || job.getState() == HistoryImportJob.State.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "import did not finish");
+            Thread.sleep(10);
+        }
+    }
+
+    private static ByteArrayInputStream csv(String... lines) {
+        return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Stock stock(Long id, String name, String price, String lastUpdate) {
+        Stock s = new Stock();
+        s.setId(id);
+        s.setName(name);
+        s.setCurrentPrice(new BigDecimal(price));
+        s.setLastUpdate(Instant.parse(lastUpdate));
+        return s;
+    }
+}
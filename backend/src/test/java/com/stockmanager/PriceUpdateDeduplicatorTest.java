@@ -0,0 +1,94 @@
+package com.stockmanager;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.PriceUpdateDeduplicator;
+import com.stockmanager.service.PriceUpdateDeduplicator.Mark;
+import com.stockmanager.service.PriceUpdateDeduplicator.Verdict;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PriceUpdateDeduplicatorTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-02T10:00:00Z");
+
+    private StockRepository stockRepository;
+    private SimpleMeterRegistry registry;
+    private PriceUpdateDeduplicator deduplicator;
+
+    @BeforeEach
+    public void setup() {
+        stockRepository = mock(StockRepository.class);
+        registry = new SimpleMeterRegistry();
+        deduplicator = new PriceUpdateDeduplicator(stockRepository, registry);
+    }
+
+    @Test
+    public void testSequenceDecidesWhenBothHaveOne() {
+        Mark mark = new Mark(T0, 5L);
+
+        assertEquals(Verdict.APPLY, PriceUpdateDeduplicator.verdict(mark, T0.minusSeconds(1), 6L));
+        assertEquals(Verdict.DUPLICATE, PriceUpdateDeduplicator.verdict(mark, T0.plusSeconds(1), 5L));
+        assertEquals(Verdict.STALE, PriceUpdateDeduplicator.verdict(mark, T0.plusSeconds(1), 4L));
+    }
+
+    @Test
+    public void testTimestampDecidesWithoutSequences() {
+        Mark mark = new Mark(T0, null);
+
+        assertEquals(Verdict.APPLY, PriceUpdateDeduplicator.verdict(mark, T0.plusMillis(1), null));
+        assertEquals(Verdict.DUPLICATE, PriceUpdateDeduplicator.verdict(mark, T0, 3L));
+        assertEquals(Verdict.STALE, PriceUpdateDeduplicator.verdict(mark, T0.minusMillis(1), null));
+    }
+
+    @Test
+    public void testUnsourcedOrFirstUpdatesApply() {
+        assertEquals(Verdict.APPLY, PriceUpdateDeduplicator.verdict(null, T0, 1L));
+        assertEquals(Verdict.APPLY, PriceUpdateDeduplicator.verdict(new Mark(T0, 5L), null, null));
+        assertEquals(Verdict.APPLY, PriceUpdateDeduplicator.verdict(new Mark(null, 5L), T0, null));
+    }
+
+    @Test
+    public void testNextMarkKeepsFieldsTheUpdateLacks() {
+        assertEquals(new Mark(T0, 6L), PriceUpdateDeduplicator.next(new Mark(T0.minusSeconds(5), 5L), T0, 6L));
+        assertEquals(new Mark(T0, 5L), PriceUpdateDeduplicator.next(new Mark(T0.minusSeconds(5), 5L), T0, null));
+    }
+
+    @Test
+    public void testDropsAreCountedByReason() {
+        deduplicator.advance(1L, new Mark(T0, 5L));
+
+        assertFalse(deduplicator.admit(1L, null, 5L));
+        assertFalse(deduplicator.admit(1L, null, 5L));
+        assertFalse(deduplicator.admit(1L, null, 4L));
+        assertTrue(deduplicator.admit(1L, null, 6L));
+        assertTrue(deduplicator.admit(2L, null, 1L));
+
+        assertEquals(2, registry.get("stock.price.updates.dropped").tag("reason", "duplicate").counter().count());
+        assertEquals(1, registry.get("stock.price.updates.dropped").tag("reason", "stale").counter().count());
+    }
+
+    @Test
+    public void testMarkNeverMovesBackwards() {
+        deduplicator.advance(1L, new Mark(T0, 7L));
+        deduplicator.advance(1L, new Mark(T0, 6L)); // committed after the newer one
+
+        assertFalse(deduplicator.admit(1L, null, 7L));
+    }
+
+    @Test
+    public void testMarksAreLoadedFromTheDatabase() {
+        when(stockRepository.findSourceMarks()).thenReturn(List.<Object[]>of(new Object[]{3L, T0, 9L}));
+
+        deduplicator.load();
+
+        assertFalse(deduplicator.admit(3L, null, 9L));
+        assertTrue(deduplicator.admit(3L, null, 10L));
+    }
+}
@@ -0,0 +1,95 @@
+package com.stockmanager;
+import com.stockmanager.dto.QuoteDto;
+import com.stockmanager.dto.QuotesAsOfDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.entity.StockPriceHistory;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockPriceHistoryRepository;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.warmup.iterations=0"
+})
+public class QuotesAsOfTest {
+
+    private static final Instant T0 = Instant.parse("2020-03-02T10:00:00Z");
+
+    @Autowired private StockService stockService;
+    @Autowired private StockExchangeService exchangeService;
+    @Autowired private StockPriceHistoryRepository historyRepository;
+
+    @Test
+    public void testLastPriceAtOrBeforeAsOfIsReturned() {
+        Stock stock = stockService.create(unique("A"), "d", new BigDecimal("50.00"));
+        record(stock, T0, "10.00");
+        record(stock, T0.plus(1, ChronoUnit.HOURS), "11.00");
+        record(stock, T0.plus(2, ChronoUnit.HOURS), "12.00");
+
+        QuoteDto between = quote(stockService.getQuotesAsOf(T0.plus(90, ChronoUnit.MINUTES), null), stock).orElseThrow();
+        assertEquals(0, new BigDecimal("11.00").compareTo(between.getPrice()));
+        assertEquals(T0.plus(1, ChronoUnit.HOURS), between.getTimestamp());
+        assertEquals(stock.getName(), between.getName());
+
+        QuoteDto exact = quote(stockService.getQuotesAsOf(T0.plus(2, ChronoUnit.HOURS), null), stock).orElseThrow();
+        assertEquals(0, new BigDecimal("12.00").compareTo(exact.getPrice()));
+    }
+
+    @Test
+    public void testStocksWithoutHistoryYetAreLeftOut() {
+        Stock stock = stockService.create(unique("B"), "d", new BigDecimal("50.00"));
+        record(stock, T0, "10.00");
+
+        assertTrue(quote(stockService.getQuotesAsOf(T0.minusSeconds(1), null), stock).isEmpty());
+    }
+
+    @Test
+    public void testExchangeFilterKeepsOnlyListedStocks() {
+        Stock listed = stockService.create(unique("L"), "d", new BigDecimal("50.00"));
+        Stock other = stockService.create(unique("O"), "d", new BigDecimal("50.00"));
+        record(listed, T0, "10.00");
+        record(other, T0, "20.00");
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        exchangeService.addStockToExchange(ex.getId(), listed.getId());
+
+        QuotesAsOfDto result = stockService.getQuotesAsOf(T0.plusSeconds(1), ex.getId());
+
+        assertEquals(ex.getId(), result.getExchangeId());
+        assertEquals(1, result.getQuotes().size());
+        assertEquals(listed.getId(), result.getQuotes().get(0).getStockId());
+    }
+
+    @Test
+    public void testUnknownExchangeIsNotFound() {
+        assertThrows(NotFoundException.class, () -> stockService.getQuotesAsOf(T0, Long.MAX_VALUE));
+    }
+
+    private void record(Stock stock, Instant at, String price) {
+        historyRepository.save(StockPriceHistory.builder()
+                .stock(stock)
+                .price(new BigDecimal(price))
+                .timestamp(at)
+                .build());
+    }
+
+    private static Optional<QuoteDto> quote(QuotesAsOfDto result, Stock stock) {
+        return result.getQuotes().stream().filter(q -> q.getStockId().equals(stock.getId())).findFirst();
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID();
+    }
+}
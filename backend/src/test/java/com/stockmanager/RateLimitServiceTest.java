@@ -0,0 +1,74 @@
+package com.stockmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.stockmanager.service.RateLimitService;
+import com.stockmanager.service.RateLimitService.EndpointClass;
+import com.stockmanager.service.TokenBucket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitServiceTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimitService service(double priceRate, int priceBurst, int writeConcurrency, SimpleMeterRegistry registry) {
+        return new RateLimitService(true, 1, 10, 1, 5, priceRate, priceBurst, 10, 20, 0, 0, writeConcurrency, registry);
+    }
+
+    @Test
+    public void bucketAdmitsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+
+        long wait = bucket.tryAcquire(0);
+        assertEquals(SECOND / 10, wait);
+        assertEquals(0, bucket.tryAcquire(wait));
+        assertTrue(bucket.tryAcquire(wait) > 0);
+
+        assertFalse(bucket.isIdle(wait));
+        assertTrue(bucket.isIdle(10 * SECOND));
+    }
+
+    @Test
+    public void bucketsAreKeyedByCallerAndClass() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitService service = service(1, 2, 0, registry);
+
+        assertEquals(0, service.tryAcquire("user:a", EndpointClass.PRICE_UPDATE));
+        assertEquals(0, service.tryAcquire("user:a", EndpointClass.PRICE_UPDATE));
+        assertTrue(service.tryAcquire("user:a", EndpointClass.PRICE_UPDATE) > 0);
+
+        assertEquals(0, service.tryAcquire("user:b", EndpointClass.PRICE_UPDATE));
+        assertEquals(0, service.tryAcquire("user:a", EndpointClass.WRITE));
+
+        assertEquals(1.0, registry.get("ratelimit.requests").tag("class", "price-update").tag("outcome", "rejected").counter().count());
+        assertEquals(3.0, registry.get("ratelimit.requests").tag("class", "price-update").tag("outcome", "allowed").counter().count());
+    }
+
+    @Test
+    public void zeroRateMeansUnlimited() {
+        RateLimitService service = service(1, 1, 0, new SimpleMeterRegistry());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, service.tryAcquire("user:a", EndpointClass.READ));
+        }
+    }
+
+    @Test
+    public void writeAdmissionIsCapped() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitService service = service(1, 1, 2, registry);
+
+        assertTrue(service.tryEnterWrite());
+        assertTrue(service.tryEnterWrite());
+        assertFalse(service.tryEnterWrite());
+        service.releaseWrite();
+        assertTrue(service.tryEnterWrite());
+        assertEquals(1.0, registry.get("ratelimit.writes.shed").counter().count());
+    }
+}
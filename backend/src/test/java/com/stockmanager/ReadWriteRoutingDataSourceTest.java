@@ -0,0 +1,191 @@
+package com.stockmanager;
+import com.stockmanager.config.ReadWriteRoutingDataSource;
+import com.stockmanager.config.ReplicaMonitor;
+import com.stockmanager.service.ExchangeIndexService;
+import com.stockmanager.service.ResourceVersions;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final long MAX_STALENESS_MS = 1000;
+
+    private DataSource primary;
+    private DataSource replica;
+    private AtomicLong now;
+
+    @BeforeEach
+    public void setup() {
+        primary = h2("primary");
+        replica = h2("replica");
+        now = new AtomicLong(1_000_000);
+    }
+
+    @Test
+    public void testReadOnlyTransactionGoesToReplica() {
+        ReplicaMonitor monitor = monitor(replica);
+        replicate(now.get());
+        monitor.heartbeat();
+
+        DataSource routed = routed(monitor);
+        assertEquals("replica", inTransaction(routed, true));
+        assertEquals("primary", inTransaction(routed, false));
+        assertEquals("primary", new JdbcTemplate(routed).queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    @Test
+    public void testHeartbeatIsWrittenToPrimary() {
+        ReplicaMonitor monitor = monitor(replica);
+        monitor.heartbeat();
+        now.addAndGet(10);
+        monitor.heartbeat();
+
+        assertEquals(now.get(), new JdbcTemplate(primary)
+                .queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class));
+    }
+
+    @Test
+    public void testReplicaWithoutHeartbeatIsNotUsed() {
+        ReplicaMonitor monitor = monitor(replica);
+        monitor.heartbeat();
+
+        assertFalse(monitor.isUsable());
+        assertEquals("primary", inTransaction(routed(monitor), true));
+    }
+
+    @Test
+    public void testStaleReplicaFallsBackToPrimaryUntilItCatchesUp() {
+        ReplicaMonitor monitor = monitor(replica);
+        replicate(now.get());
+        monitor.heartbeat();
+        DataSource routed = routed(monitor);
+
+        now.addAndGet(MAX_STALENESS_MS + 1);
+        monitor.heartbeat();
+        assertEquals("primary", inTransaction(routed, true));
+
+        replicate(now.get());
+        monitor.heartbeat();
+        assertEquals("replica", inTransaction(routed, true));
+    }
+
+    @Test
+    public void testReplicaConnectionFailureFallsBackToPrimary() throws SQLException {
+        DataSource failing = spy(replica);
+        ReplicaMonitor monitor = monitor(failing);
+        replicate(now.get());
+        monitor.heartbeat();
+        assertTrue(monitor.isUsable());
+
+        doThrow(new SQLException("replica down")).when(failing).getConnection();
+        DataSource routed = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, failing, monitor));
+
+        assertEquals("primary", inTransaction(routed, true));
+        assertFalse(monitor.isUsable());
+    }
+
+    @Test
+    public void testOnlyUncachedUntaggedReadsAreReplicaEligible() {
+        // Cached or ETagged: a replica read would keep serving lagging data after the replica catches up
+        assertFalse(readOnly(StockService.class, "listAll"));
+        assertFalse(readOnly(StockService.class, "getById"));
+        assertFalse(readOnly(StockExchangeService.class, "listAll"));
+        assertFalse(readOnly(StockExchangeService.class, "getById"));
+
+        // Tagged and shared only once the replica has applied the version (ResourceVersions.historyReplicated)
+        assertTrue(readOnly(StockService.class, "getPriceHistory"));
+        assertTrue(readOnly(StockService.class, "getQuotesAsOf"));
+        assertTrue(readOnly(ExchangeIndexService.class, "getHistory"));
+    }
+
+    @Test
+    public void testHistoryIsReplicatedOnceABeatAfterItsChangeArrives() {
+        ReplicaMonitor monitor = monitor(replica);
+        ResourceVersions versions = new ResourceVersions(monitor);
+        // Nothing seen from the replica since boot: anything from before it may be missing
+        assertFalse(versions.historyReplicated(1L));
+
+        now.addAndGet(10);
+        replicate(now.get());
+        monitor.heartbeat();
+        assertTrue(versions.historyReplicated(1L));
+
+        versions.historyChanged(1L);
+        assertFalse(versions.historyReplicated(1L));
+        assertTrue(versions.historyReplicated(2L));
+
+        // A beat written in the same millisecond may have been stamped before the commit
+        monitor.heartbeat();
+        assertFalse(versions.historyReplicated(1L));
+
+        now.addAndGet(1);
+        replicate(now.get());
+        monitor.heartbeat();
+        assertTrue(versions.historyReplicated(1L));
+    }
+
+    @Test
+    public void testHistoryIsAlwaysReplicatedWithoutAReplica() {
+        ResourceVersions versions = new ResourceVersions();
+        versions.historyChanged(1L);
+        assertTrue(versions.historyReplicated(1L));
+    }
+
+    private ReplicaMonitor monitor(DataSource replicaSource) {
+        return new ReplicaMonitor(primary, replicaSource, MAX_STALENESS_MS, new SimpleMeterRegistry(), now::get);
+    }
+
+    private DataSource routed(ReplicaMonitor monitor) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, monitor));
+    }
+
+    // Stands in for replication: the replica has applied everything up to this beat
+    private void replicate(long beat) {
+        JdbcTemplate jdbc = new JdbcTemplate(replica);
+        jdbc.update("DELETE FROM replica_heartbeat");
+        jdbc.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", beat);
+    }
+
+    private static String inTransaction(DataSource routed, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(routed));
+        tx.setReadOnly(readOnly);
+        return tx.execute(s -> new JdbcTemplate(routed).queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private static boolean readOnly(Class<?> service, String methodName) {
+        Method method = Arrays.stream(service.getMethods())
+                .filter(m -> m.getName().equals(methodName)).findFirst().orElseThrow();
+        Transactional tx = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        return tx != null && tx.readOnly();
+    }
+
+    private static DataSource h2(String name) {
+        DataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        return ds;
+    }
+}
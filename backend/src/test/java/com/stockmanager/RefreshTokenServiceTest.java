@@ -0,0 +1,136 @@
+package com.stockmanager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.stockmanager.entity.RefreshToken;
+import com.stockmanager.exception.InvalidTokenException;
+import com.stockmanager.exception.RateLimitedException;
+import com.stockmanager.repository.RefreshTokenRepository;
+import com.stockmanager.service.RateLimitService;
+import com.stockmanager.service.RefreshTokenService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository repository;
+    private RefreshTokenService service;
+    private final List<RefreshToken> saved = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        repository = mock(RefreshTokenRepository.class);
+        // Refresh burst of 2 per family; the other classes are irrelevant here
+        service = new RefreshTokenService(repository,
+                new RateLimitService(true, 0, 0, 0.001, 2, 0, 0, 0, 0, 0, 0, 0, new SimpleMeterRegistry()), 60_000);
+
+        when(repository.save(any())).thenAnswer(i -> {
+            RefreshToken t = i.getArgument(0);
+            t.setId((long) saved.size() + 1);
+            saved.add(t);
+            return t;
+        });
+        when(repository.findByTokenHash(anyString())).thenAnswer(i -> saved.stream()
+                .filter(t -> t.getTokenHash().equals(i.getArgument(0)))
+                .findFirst());
+        when(repository.markUsed(anyLong(), any())).thenAnswer(i -> {
+            RefreshToken t = saved.get(((Long) i.getArgument(0)).intValue() - 1);
+            if (t.getUsedAt() != null) return 0;
+            t.setUsedAt(i.getArgument(1));
+            return 1;
+        });
+    }
+
+    @Test
+    public void rotationIssuesSuccessorInSameFamily() {
+        String first = service.issue("alice");
+        var rotated = service.rotate(first);
+
+        assertEquals("alice", rotated.username());
+        assertNotEquals(first, rotated.token());
+        assertEquals(2, saved.size());
+        assertEquals(saved.get(0).getFamilyId(), saved.get(1).getFamilyId());
+        assertNotEquals(first, saved.get(0).getTokenHash()); // only the hash is stored
+    }
+
+    @Test
+    public void reusingRotatedTokenRevokesFamily() {
+        String first = service.issue("alice");
+        service.rotate(first);
+
+        assertThrows(InvalidTokenException.class, () -> service.rotate(first));
+        verify(repository).revokeFamily(eq(saved.get(0).getFamilyId()), any());
+    }
+
+    @Test
+    public void losingConcurrentExchangeCountsAsReuse() {
+        String first = service.issue("alice");
+        doReturn(0).when(repository).markUsed(anyLong(), any());
+
+        assertThrows(InvalidTokenException.class, () -> service.rotate(first));
+        verify(repository).revokeFamily(eq(saved.get(0).getFamilyId()), any());
+    }
+
+    @Test
+    public void rejectsUnknownExpiredAndRevokedTokens() {
+        assertThrows(InvalidTokenException.class, () -> service.rotate("nope"));
+
+        String expired = service.issue("alice");
+        saved.get(0).setExpiresAt(Instant.now().minusSeconds(1));
+        assertThrows(InvalidTokenException.class, () -> service.rotate(expired));
+
+        String revoked = service.issue("bob");
+        saved.get(1).setRevokedAt(Instant.now());
+        assertThrows(InvalidTokenException.class, () -> service.rotate(revoked));
+
+        verify(repository, never()).revokeFamily(anyString(), any());
+    }
+
+    @Test
+    public void logoutRevokesTokenFamily() {
+        String token = service.issue("alice");
+        service.revoke(token);
+        verify(repository).revokeFamily(eq(saved.get(0).getFamilyId()), any());
+
+        when(repository.findByTokenHash("x")).thenReturn(Optional.empty());
+        service.revoke("x"); // unknown tokens are ignored
+    }
+
+    @Test
+    public void refreshesAreLimitedPerFamilyNotPerClient() {
+        String alice = service.issue("alice");
+        String bob = service.issue("bob");
+        alice = service.rotate(alice).token();
+        alice = service.rotate(alice).token();
+
+        String throttled = alice;
+        RateLimitedException ex = assertThrows(RateLimitedException.class, () -> service.rotate(throttled));
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+        // Rejected before the token was used, so it stays valid for the retry
+        assertNull(saved.get(saved.size() - 1).getUsedAt());
+        verify(repository, never()).revokeFamily(anyString(), any());
+
+        // Another session behind the same address is unaffected
+        service.rotate(bob);
+    }
+}
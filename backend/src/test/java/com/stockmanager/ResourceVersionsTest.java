@@ -0,0 +1,53 @@
+package com.stockmanager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.stockmanager.service.ResourceVersions;
+
+public class ResourceVersionsTest {
+
+    private final ResourceVersions versions = new ResourceVersions();
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void etagsAreStrongAndQuoted() {
+        String etag = versions.stocksEtag();
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertNotEquals(etag, versions.exchangesEtag());
+    }
+
+    @Test
+    public void bumpIsDeferredUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        String before = versions.stocksEtag();
+
+        versions.stocksChanged();
+        assertEquals(before, versions.stocksEtag());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNotEquals(before, versions.stocksEtag());
+    }
+
+    @Test
+    public void historyVersionsArePerStock() {
+        String one = versions.historyEtag(1L);
+        String two = versions.historyEtag(2L);
+
+        versions.historyChanged(1L);
+
+        assertNotEquals(one, versions.historyEtag(1L));
+        assertEquals(two, versions.historyEtag(2L));
+    }
+}
@@ -0,0 +1,108 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.stockmanager.dto.StockStatsDto;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.service.RollingStatsService;
+
+public class RollingStatsServiceTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private RollingStatsService service;
+
+    @BeforeEach
+    public void setup() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        service = new RollingStatsService(new int[]{3, 5}, false, messagingTemplate);
+    }
+
+    private void tick(long stockId, double price) {
+        service.onPriceChanged(new StockPriceChangedEvent(stockId, null, BigDecimal.valueOf(price), Instant.now()));
+    }
+
+    @Test
+    public void testSmaUsesOnlyLastWindowTicks() {
+        double[] prices = {10, 11, 12, 13, 14, 15};
+        for (double p : prices) tick(1L, p);
+
+        StockStatsDto stats = service.getStats(1L);
+
+        assertEquals(6, stats.getTicks());
+        assertEquals(3, stats.getWindows().get(0).getWindow());
+        assertEquals(14.0, stats.getWindows().get(0).getSma(), 1e-9);
+        assertEquals(13.0, stats.getWindows().get(1).getSma(), 1e-9);
+    }
+
+    @Test
+    public void testEmaMatchesRecursiveDefinition() {
+        double[] prices = {10, 12, 11, 15, 9};
+        double alpha = 2.0 / (3 + 1);
+        double expected = prices[0];
+        for (int i = 1; i < prices.length; i++) expected += alpha * (prices[i] - expected);
+
+        for (double p : prices) tick(1L, p);
+
+        assertEquals(expected, service.getStats(1L).getWindows().get(0).getEma(), 1e-9);
+    }
+
+    @Test
+    public void testVolatilityMatchesBruteForceOverSlidingWindow() {
+        double[] prices = {100, 101, 99.5, 102, 103.2, 101.1, 100.4, 104.9, 103.3};
+        for (double p : prices) tick(1L, p);
+
+        // last 5 log returns, sample standard deviation
+        double[] r = new double[5];
+        for (int i = 0; i < 5; i++) {
+            int j = prices.length - 5 + i;
+            r[i] = Math.log(prices[j] / prices[j - 1]);
+        }
+        double mean = 0;
+        for (double x : r) mean += x / r.length;
+        double ss = 0;
+        for (double x : r) ss += (x - mean) * (x - mean);
+        double expected = Math.sqrt(ss / (r.length - 1));
+
+        assertEquals(expected, service.getStats(1L).getWindows().get(1).getVolatility(), 1e-12);
+    }
+
+    @Test
+    public void testUnknownStockHasEmptyWindows() {
+        StockStatsDto stats = service.getStats(42L);
+
+        assertEquals(0, stats.getTicks());
+        assertNull(stats.getWindows().get(0).getSma());
+        assertNull(stats.getWindows().get(0).getVolatility());
+    }
+
+    @Test
+    public void testDeleteDropsStats() {
+        tick(1L, 10);
+        service.onStockDeleted(new StockDeletedEvent(1L, java.util.List.of()));
+
+        assertEquals(0, service.getStats(1L).getTicks());
+    }
+
+    @Test
+    public void testPublishOnlyWhenEnabled() {
+        tick(1L, 10);
+        verify(messagingTemplate, never()).convertAndSend(any(String.class), any(Object.class));
+
+        RollingStatsService publishing = new RollingStatsService(new int[]{3}, true, messagingTemplate);
+        publishing.onPriceChanged(new StockPriceChangedEvent(7L, null, BigDecimal.TEN, Instant.now()));
+        verify(messagingTemplate).convertAndSend(eq("/topic/stocks/7/stats"), any(StockStatsDto.class));
+    }
+}
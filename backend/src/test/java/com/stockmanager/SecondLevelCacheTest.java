@@ -0,0 +1,164 @@
+package com.stockmanager;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.ExchangeIndexService;
+import com.stockmanager.service.MoversService;
+import com.stockmanager.service.PriceAlertService;
+import com.stockmanager.service.PriceUpdateDeduplicator;
+import com.stockmanager.service.RollingStatsService;
+import com.stockmanager.service.SecondLevelCacheEvictor;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockJsonCache;
+import com.stockmanager.service.StockSearchService;
+import com.stockmanager.service.StockService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.event.TransactionalApplicationListenerMethodAdapter;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.warmup.iterations=0"
+})
+public class SecondLevelCacheTest {
+
+    private static final String STOCK_EXCHANGES = Stock.class.getName() + ".exchanges";
+    private static final String EXCHANGE_STOCKS = StockExchange.class.getName() + ".stocks";
+
+    @Autowired private StockService stockService;
+    @Autowired private StockExchangeService exchangeService;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate tx;
+
+    private Cache cache;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testStockIsServedFromCacheAfterFirstLoad() {
+        Stock stock = stockService.create(unique("S"), "d", new BigDecimal("10.00"));
+        cache.evictEntityData(Stock.class);
+
+        tx.executeWithoutResult(s -> stockRepository.findById(stock.getId()).orElseThrow());
+        assertTrue(cache.containsEntity(Stock.class, stock.getId()));
+
+        statistics.clear();
+        tx.executeWithoutResult(s -> stockRepository.findById(stock.getId()).orElseThrow());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindByNameUsesQueryCache() {
+        String name = unique("Q");
+        stockService.create(name, "d", new BigDecimal("10.00"));
+
+        tx.executeWithoutResult(s -> stockRepository.findByName(name).orElseThrow());
+        statistics.clear();
+        tx.executeWithoutResult(s -> stockRepository.findByName(name).orElseThrow());
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void testMembershipChangeEvictsInverseCollection() {
+        Stock stock = stockService.create(unique("M"), "d", new BigDecimal("10.00"));
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        assertEquals(Set.of(), exchangeIdsOf(stock.getId()));
+        assertTrue(cache.containsCollection(STOCK_EXCHANGES, stock.getId()));
+
+        exchangeService.addStockToExchange(ex.getId(), stock.getId());
+
+        assertFalse(cache.containsCollection(STOCK_EXCHANGES, stock.getId()));
+        assertEquals(Set.of(ex.getId()), exchangeIdsOf(stock.getId()));
+    }
+
+    @Test
+    public void testNativeMembershipDeleteEvictsCollectionRegions() {
+        Stock stock = stockService.create(unique("D"), "d", new BigDecimal("10.00"));
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        exchangeService.addStockToExchange(ex.getId(), stock.getId());
+        stockIdsOf(ex.getId());
+        exchangeIdsOf(stock.getId());
+        assertTrue(cache.containsCollection(EXCHANGE_STOCKS, ex.getId()));
+
+        stockService.delete(stock.getId());
+
+        assertFalse(cache.containsCollection(EXCHANGE_STOCKS, ex.getId()));
+        assertTrue(stockRepository.findById(stock.getId()).isEmpty());
+        assertEquals(Set.of(), stockIdsOf(ex.getId()));
+    }
+
+    @Test
+    void evictionsRunBeforeOtherAfterCommitListenersOfTheSameEvent() {
+        List<Class<?>> others = List.of(StockJsonCache.class, StockSearchService.class, MoversService.class,
+                ExchangeIndexService.class, RollingStatsService.class, PriceAlertService.class,
+                PriceUpdateDeduplicator.class);
+        int checked = 0;
+        for (Method eviction : listenersOf(SecondLevelCacheEvictor.class)) {
+            Class<?> event = eviction.getParameterTypes()[0];
+            int evictionOrder = orderOf(SecondLevelCacheEvictor.class, eviction);
+            for (Class<?> other : others) {
+                for (Method listener : listenersOf(other)) {
+                    if (!listener.getParameterTypes()[0].isAssignableFrom(event)) {
+                        continue;
+                    }
+                    assertTrue(evictionOrder < orderOf(other, listener),
+                            eviction.getName() + " must run before " + other.getSimpleName() + "." + listener.getName());
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > 0, "expected other listeners to share an event with the evictor");
+    }
+
+    private Set<Long> exchangeIdsOf(Long stockId) {
+        return tx.execute(s -> stockRepository.findById(stockId).orElseThrow()
+                .getExchanges().stream().map(StockExchange::getId).collect(Collectors.toSet()));
+    }
+
+    private Set<Long> stockIdsOf(Long exchangeId) {
+        return tx.execute(s -> exchangeService.getById(exchangeId)
+                .getStocks().stream().map(Stock::getId).collect(Collectors.toSet()));
+    }
+
+    private static List<Method> listenersOf(Class<?> type) {
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(m -> m.isAnnotationPresent(TransactionalEventListener.class))
+                .toList();
+    }
+
+    /** The order Spring itself resolves when it registers the method as a listener. */
+    private static int orderOf(Class<?> type, Method listener) {
+        return new TransactionalApplicationListenerMethodAdapter(type.getSimpleName(), type, listener).getOrder();
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,99 @@
+package com.stockmanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.service.SingleFlight;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<Long, Object> flight = new SingleFlight<>();
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object value = new Object();
+
+        Future<Object> leader = pool.submit(() -> flight.load(1L, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return value;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Future<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(pool.submit(() -> flight.load(1L, () -> {
+                loads.incrementAndGet();
+                return new Object();
+            })));
+        }
+        Thread.sleep(100); // let followers attach to the in-flight load
+        release.countDown();
+
+        assertSame(value, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Object> f : followers) {
+            assertSame(value, f.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void nothingIsCachedAfterCompletion() {
+        AtomicInteger loads = new AtomicInteger();
+        flight.load(1L, loads::incrementAndGet);
+        flight.load(1L, loads::incrementAndGet);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void failureIsSharedAndThenCleared() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = pool.submit(() -> flight.load(2L, () -> {
+            started.countDown();
+            await(release);
+            throw new NotFoundException("gone");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = pool.submit(() -> flight.load(2L, Object::new));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception ex = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof NotFoundException);
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", flight.load(2L, () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.stockmanager;
+import com.stockmanager.dto.BatchCreateStocksRequest;
+import com.stockmanager.dto.CreateStockRequest;
+import com.stockmanager.dto.StockDto;
+import com.stockmanager.entity.OutboxEvent;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.EventOutbox;
+import com.stockmanager.service.StockBatchService;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockService;
+import com.stockmanager.service.TickJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.warmup.iterations=0"
+})
+public class StockBatchServiceTest {
+
+    @Autowired private StockBatchService batchService;
+    @Autowired private StockService stockService;
+    @Autowired private StockExchangeService exchangeService;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TickJournal journal;
+    @Autowired private ObjectMapper objectMapper;
+
+    // The in-memory database outlives contexts: another test context may have recreated the schema,
+    // leaving this context's cache with entries under ids the batch's plain inserts now reuse
+    @BeforeEach
+    public void setup() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void testCreatesStocksWithHistoryAcrossInsertBatches() {
+        String prefix = unique("B");
+        // one more than the default app.stocks.batch-insert-size
+        List<CreateStockRequest> requests = requests(prefix, 1001);
+
+        List<StockDto> created = batchService.create(requests, null);
+
+        assertEquals(1001, created.size());
+        assertEquals(1001, created.stream().map(StockDto::getId).distinct().count());
+        for (int i : new int[] {0, 999, 1000}) {
+            StockDto dto = created.get(i);
+            assertEquals(prefix + i, dto.getName());
+            Stock stock = stockService.getById(dto.getId());
+            assertEquals(prefix + i, stock.getName());
+            assertEquals(0, new BigDecimal(10 + i).compareTo(stock.getCurrentPrice()));
+            assertEquals(1, stock.getEventSequence());
+            assertEquals(1, stockService.getPriceHistory(dto.getId()).size());
+        }
+    }
+
+    @Test
+    public void testListsStocksOnExchange() {
+        StockExchange ex = exchangeService.create(unique("EX"), "d", false);
+        // cached before the batch, which writes the membership table directly
+        assertEquals(0, exchangeService.getById(ex.getId()).getStocks().size());
+
+        List<StockDto> created = batchService.create(requests(unique("L"), 3), ex.getId());
+
+        Set<Long> ids = created.stream().map(StockDto::getId).collect(Collectors.toSet());
+        assertEquals(List.of(ex.getId()), created.get(0).getExchangeIds());
+        assertEquals(ids, exchangeService.getById(ex.getId()).getStocks().stream()
+                .map(Stock::getId).collect(Collectors.toSet()));
+        assertEquals(Set.of(ex.getId()), stockService.getById(created.get(0).getId()).getExchanges().stream()
+                .map(StockExchange::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testLargestBatchIsPublishedInChunksThatFitTheOutbox() throws Exception {
+        String prefix = unique("Global Consolidated Industries Holdings");
+        String description = "Diversified manufacturer of industrial automation equipment, precision components "
+                + "and aftermarket services, listed on several regional exchanges.";
+        List<CreateStockRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BatchCreateStocksRequest.MAX_STOCKS; i++) {
+            CreateStockRequest req = request(prefix + i, 10 + i % 500);
+            req.setDescription(description + " Series " + i + ".");
+            requests.add(req);
+        }
+        long before = journal.lastSequence();
+
+        List<StockDto> created = batchService.create(requests, null);
+
+        assertEquals(BatchCreateStocksRequest.MAX_STOCKS, created.size());
+        // One array per outbox row, each within the payload column
+        long deadline = System.currentTimeMillis() + 10_000;
+        int published = 0;
+        int messages = 0;
+        while (published < created.size()) {
+            assertTrue(System.currentTimeMillis() < deadline, "batch was not published");
+            Thread.sleep(20);
+            published = 0;
+            messages = 0;
+            for (TickJournal.Tick tick : journal.since(journal.epoch(), before).orElseThrow()) {
+                if (!EventOutbox.STOCKS_BATCH_TOPIC.equals(tick.destination())) continue;
+                assertTrue(tick.payload().length <= OutboxEvent.MAX_PAYLOAD_BYTES);
+                published += objectMapper.readValue(tick.payload(), StockDto[].class).length;
+                messages++;
+            }
+        }
+        assertEquals(created.size(), published);
+        assertTrue(messages > 1);
+    }
+
+    @Test
+    public void testCachedNameLookupSeesCreatedStock() {
+        String prefix = unique("Q");
+        assertTrue(stockRepository.findByName(prefix + 0).isEmpty());
+
+        batchService.create(requests(prefix, 1), null);
+
+        assertTrue(stockRepository.findByName(prefix + 0).isPresent());
+    }
+
+    @Test
+    public void testExistingNameRejectsWholeBatch() {
+        String prefix = unique("E");
+        stockService.create(prefix + 1, "d", new BigDecimal("5.00"));
+
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class,
+                () -> batchService.create(requests(prefix, 3), null));
+
+        assertTrue(ex.getMessage().contains(prefix + 1));
+        assertTrue(stockRepository.findByName(prefix + 0).isEmpty());
+        assertTrue(stockRepository.findByName(prefix + 2).isEmpty());
+    }
+
+    @Test
+    public void testNameRepeatedInBatchIsRejected() {
+        String name = unique("R");
+        List<CreateStockRequest> requests = List.of(request(name, 1), request(name, 2));
+
+        assertThrows(BusinessRuleException.class, () -> batchService.create(requests, null));
+        assertTrue(stockRepository.findByName(name).isEmpty());
+    }
+
+    @Test
+    public void testUnknownExchangeIsNotFound() {
+        assertThrows(NotFoundException.class, () -> batchService.create(requests(unique("N"), 1), Long.MAX_VALUE));
+    }
+
+    private static List<CreateStockRequest> requests(String prefix, int count) {
+        List<CreateStockRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) requests.add(request(prefix + i, 10 + i));
+        return requests;
+    }
+
+    private static CreateStockRequest request(String name, int price) {
+        CreateStockRequest req = new CreateStockRequest();
+        req.setName(name);
+        req.setDescription("d");
+        req.setCurrentPrice(new BigDecimal(price));
+        return req;
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID() + "-";
+    }
+}
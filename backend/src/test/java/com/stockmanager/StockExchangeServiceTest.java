@@ -8,6 +8,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -18,6 +19,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.stockmanager.entity.Stock;
 import com.stockmanager.entity.StockExchange;
@@ -25,19 +27,27 @@ import com.stockmanager.exception.BusinessRuleException;
 import com.stockmanager.exception.NotFoundException;
 import com.stockmanager.repository.StockExchangeRepository;
 import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.EventOutbox;
+import com.stockmanager.service.ResourceVersions;
 import com.stockmanager.service.StockExchangeService;
 
 public class StockExchangeServiceTest {
 
     private StockExchangeRepository exchangeRepository;
     private StockRepository stockRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ResourceVersions versions;
+    private EventOutbox outbox;
     private StockExchangeService service;
 
     @BeforeEach
     public void setup() {
         exchangeRepository = mock(StockExchangeRepository.class);
         stockRepository = mock(StockRepository.class);
-        service = new StockExchangeService(exchangeRepository, stockRepository);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        versions = new ResourceVersions();
+        outbox = mock(EventOutbox.class);
+        service = new StockExchangeService(exchangeRepository, stockRepository, eventPublisher, versions, outbox);
     }
 
     @Test
@@ -137,10 +147,15 @@ public class StockExchangeServiceTest {
         when(stockRepository.findById(10L)).thenReturn(Optional.of(stock));
         when(exchangeRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
+        String exchangesBefore = versions.exchangesEtag();
+        String stocksBefore = versions.stocksEtag();
         StockExchange updated = service.addStockToExchange(1L, 10L);
 
         assertEquals(1, updated.getStocks().size());
         assertTrue(updated.getStocks().contains(stock));
+        assertNotEquals(exchangesBefore, versions.exchangesEtag());
+        assertNotEquals(stocksBefore, versions.stocksEtag());
+        verify(outbox).exchangeChanged(updated);
     }
 
     @Test
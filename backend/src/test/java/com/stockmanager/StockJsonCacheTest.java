@@ -0,0 +1,104 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.service.StockJsonCache;
+
+public class StockJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StockJsonCache cache;
+
+    @BeforeEach
+    public void setup() {
+        cache = new StockJsonCache(objectMapper);
+    }
+
+    private static Stock stock(Long id, String price) {
+        Stock s = new Stock();
+        s.setId(id);
+        s.setName("S" + id);
+        s.setCurrentPrice(new BigDecimal(price));
+        s.setLastUpdate(Instant.now());
+        return s;
+    }
+
+    @Test
+    public void reusesBytesUntilInvalidated() {
+        Stock s = stock(1L, "10");
+        byte[] first = cache.json(s, cache.mark());
+        assertSame(first, cache.json(s, cache.mark()));
+
+        cache.onPriceChanged(new StockPriceChangedEvent(1L, null, new BigDecimal("11"), Instant.now()));
+        s.setCurrentPrice(new BigDecimal("11"));
+        byte[] second = cache.json(s, cache.mark());
+        assertNotSame(first, second);
+        assertTrue(new String(second, StandardCharsets.UTF_8).contains("\"currentPrice\":11"));
+    }
+
+    @Test
+    public void readerStartedBeforeInvalidationDoesNotInstall() {
+        long mark = cache.mark();
+        Stock stale = stock(1L, "10");
+        cache.invalidate(1L);
+
+        byte[] served = cache.json(stale, mark);
+        Stock fresh = stock(1L, "11");
+        byte[] next = cache.json(fresh, cache.mark());
+        assertNotSame(served, next);
+        assertTrue(new String(next, StandardCharsets.UTF_8).contains("\"currentPrice\":11"));
+    }
+
+    @Test
+    public void invalidateAllBlocksEarlierReaders() {
+        long mark = cache.mark();
+        cache.invalidateAll();
+        cache.json(stock(2L, "10"), mark);
+
+        byte[] fresh = cache.json(stock(2L, "12"), cache.mark());
+        assertTrue(new String(fresh, StandardCharsets.UTF_8).contains("\"currentPrice\":12"));
+    }
+
+    @Test
+    public void pruningTombstonesKeepsVersionsAndBlocksEarlierReaders() {
+        Stock cached = stock(1L, "10");
+        byte[] bytes = cache.json(cached, cache.mark());
+        long mark = cache.mark();
+        cache.invalidate(2L);
+        long version = cache.version(2L);
+
+        cache.pruneTombstones();
+
+        assertTrue(cache.version(2L) >= version);
+        assertSame(bytes, cache.json(cached, cache.mark()));
+        byte[] stale = cache.json(stock(2L, "10"), mark);
+        byte[] fresh = cache.json(stock(2L, "11"), cache.mark());
+        assertNotSame(stale, fresh);
+        assertSame(fresh, cache.json(stock(2L, "11"), cache.mark()));
+    }
+
+    @Test
+    public void arrayMatchesDtoSerialization() throws Exception {
+        List<Stock> stocks = List.of(stock(1L, "10"), stock(2L, "20.5"));
+        JsonNode array = objectMapper.readTree(cache.jsonArray(stocks, cache.mark()));
+
+        assertEquals(2, array.size());
+        assertEquals(2, array.get(1).get("id").asInt());
+        assertEquals("S2", array.get(1).get("name").asText());
+        assertEquals("[]", new String(cache.jsonArray(List.of(), cache.mark()), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.stockmanager.dto.PagedResponse;
+import com.stockmanager.dto.StockDto;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.event.StockCreatedEvent;
+import com.stockmanager.event.StockDeletedEvent;
+import com.stockmanager.event.StockPriceChangedEvent;
+import com.stockmanager.exception.BusinessRuleException;
+import com.stockmanager.exception.NotFoundException;
+import com.stockmanager.repository.StockExchangeRepository;
+import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.StockSearchService;
+
+public class StockSearchServiceTest {
+
+    private StockRepository stockRepository;
+    private StockExchangeRepository exchangeRepository;
+    private StockSearchService service;
+    private final List<Stock> stocks = List.of(
+            stock(1L, "Apple", "190"),
+            stock(2L, "Applied Materials", "150"),
+            stock(3L, "Pineapple Corp", "12"),
+            stock(4L, "Microsoft", "410"),
+            stock(5L, "Snapple", "8"));
+
+    @BeforeEach
+    public void setup() {
+        stockRepository = mock(StockRepository.class);
+        exchangeRepository = mock(StockExchangeRepository.class);
+        when(stockRepository.findAll()).thenReturn(stocks);
+        when(stockRepository.findAllById(anyIterable())).thenAnswer(i -> {
+            Iterable<Long> ids = i.getArgument(0);
+            return stocks.stream().filter(s -> contains(ids, s.getId())).toList();
+        });
+        service = new StockSearchService(stockRepository, exchangeRepository);
+        service.load();
+    }
+
+    private static boolean contains(Iterable<Long> ids, Long id) {
+        for (Long i : ids) if (i.equals(id)) return true;
+        return false;
+    }
+
+    private static Stock stock(Long id, String name, String price) {
+        Stock s = new Stock();
+        s.setId(id);
+        s.setName(name);
+        s.setCurrentPrice(new BigDecimal(price));
+        return s;
+    }
+
+    private static List<Long> ids(PagedResponse<StockDto> page) {
+        return page.getContent().stream().map(StockDto::getId).toList();
+    }
+
+    @Test
+    public void prefixMatchesRankAheadOfSubstringMatches() {
+        var result = service.search("APP", null, null, null, null, 0, 20);
+        assertEquals(List.of(1L, 2L, 3L, 5L), ids(result));
+        assertEquals(4, result.getTotalElements());
+    }
+
+    @Test
+    public void shortQueriesMatchPrefixOnly() {
+        assertEquals(List.of(4L), ids(service.search("mi", null, null, null, null, 0, 20)));
+    }
+
+    @Test
+    public void filtersByPriceAndExchangeMembership() {
+        when(exchangeRepository.existsById(7L)).thenReturn(true);
+        when(exchangeRepository.findStockIdsByExchangeId(7L)).thenReturn(List.of(1L, 3L, 4L));
+
+        var result = service.search(null, 7L, new BigDecimal("10"), new BigDecimal("200"), "price,desc", 0, 20);
+        assertEquals(List.of(1L, 3L), ids(result));
+
+        assertThrows(NotFoundException.class, () -> service.search(null, 8L, null, null, null, 0, 20));
+    }
+
+    @Test
+    public void paginates() {
+        var page = service.search(null, null, null, null, "name", 1, 2);
+        assertEquals(List.of(4L, 3L), ids(page));
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(List.of(), ids(service.search(null, null, null, null, "name", 9, 2)));
+    }
+
+    @Test
+    public void nameOrderListingWalksTheIndexInSortOrder() {
+        // Same name up to case: tied on name, then ordered by id as a number
+        service.onStockCreated(new StockCreatedEvent(10L, "APPLE", new BigDecimal("1"), Instant.now()));
+        service.onStockCreated(new StockCreatedEvent(9L, "apple", new BigDecimal("1"), Instant.now()));
+        when(stockRepository.findAllById(anyIterable())).thenAnswer(i -> {
+            List<Stock> found = new ArrayList<>();
+            i.<Iterable<Long>>getArgument(0).forEach(id -> found.add(stock(id, "S" + id, "1")));
+            return found;
+        });
+
+        assertEquals(List.of(1L, 9L, 10L), ids(service.search("", null, null, null, null, 0, 3)));
+        var desc = service.search(null, null, null, null, "name,desc", 1, 3);
+        assertEquals(List.of(2L, 10L, 9L), ids(desc));
+        assertEquals(7, desc.getTotalElements());
+
+        when(exchangeRepository.existsById(7L)).thenReturn(true);
+        when(exchangeRepository.findStockIdsByExchangeId(7L)).thenReturn(List.of(1L, 3L, 4L, 10L));
+        var members = service.search(null, 7L, null, null, "name", 1, 2);
+        assertEquals(List.of(4L, 3L), ids(members));
+        assertEquals(4, members.getTotalElements());
+        assertEquals(2, members.getTotalPages());
+    }
+
+    @Test
+    public void indexFollowsCreateDeleteAndPriceEvents() {
+        service.onStockCreated(new StockCreatedEvent(6L, "Grapple", new BigDecimal("5"), Instant.now()));
+        assertEquals(4, service.search("pple", null, null, null, null, 0, 20).getTotalElements());
+
+        service.onStockDeleted(new StockDeletedEvent(3L, List.of()));
+        service.onPriceChanged(new StockPriceChangedEvent(5L, null, new BigDecimal("500"), Instant.now()));
+        var result = service.search("pple", null, new BigDecimal("100"), null, null, 0, 20);
+        assertEquals(List.of(1L, 5L), ids(result));
+    }
+
+    @Test
+    public void rejectsBadParameters() {
+        assertThrows(BusinessRuleException.class, () -> service.search(null, null, null, null, "volume", 0, 20));
+        assertThrows(BusinessRuleException.class, () -> service.search(null, null, BigDecimal.TEN, BigDecimal.ONE, null, 0, 20));
+        assertThrows(BusinessRuleException.class, () -> service.search(null, null, null, null, null, 0, 0));
+    }
+}
@@ -1,13 +1,26 @@
 package com.stockmanager;
+import com.stockmanager.dto.ExchangeDto;
 import com.stockmanager.entity.Stock;
+import com.stockmanager.entity.StockExchange;
 import com.stockmanager.entity.StockPriceHistory;
 import com.stockmanager.exception.NotFoundException;
 import com.stockmanager.repository.StockExchangeRepository;
 import com.stockmanager.repository.StockPriceHistoryRepository;
 import com.stockmanager.repository.StockRepository;
+import com.stockmanager.service.EventOutbox;
+import com.stockmanager.service.PriceUpdateDeduplicator;
+import com.stockmanager.service.ResourceVersions;
+import com.stockmanager.service.StockJsonCache;
 import com.stockmanager.service.StockService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -15,6 +28,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +43,11 @@ public class StockServiceTest {
     private StockRepository stockRepository;
     private StockExchangeRepository stockExchangeRepository;
     private StockPriceHistoryRepository stockPriceHistoryRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ResourceVersions versions;
+    private EventOutbox outbox;
+    private PriceUpdateDeduplicator deduplicator;
+    private StockJsonCache jsonCache;
     private StockService service;
 
     @BeforeEach
@@ -34,7 +55,12 @@ public class StockServiceTest {
         stockRepository = mock(StockRepository.class);
         stockExchangeRepository = mock(StockExchangeRepository.class);
         stockPriceHistoryRepository = mock(StockPriceHistoryRepository.class);
-        service = new StockService(stockRepository, stockExchangeRepository, stockPriceHistoryRepository);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        versions = new ResourceVersions();
+        outbox = mock(EventOutbox.class);
+        deduplicator = new PriceUpdateDeduplicator(stockRepository, new SimpleMeterRegistry());
+        jsonCache = new StockJsonCache(new ObjectMapper());
+        service = new StockService(stockRepository, stockExchangeRepository, stockPriceHistoryRepository, eventPublisher, versions, outbox, deduplicator, jsonCache);
     }
 
     @Test
@@ -103,7 +129,7 @@ public class StockServiceTest {
         s.setId(1L);
         s.setCurrentPrice(new BigDecimal("50.0"));
 
-        when(stockRepository.findById(1L)).thenReturn(Optional.of(s));
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
         when(stockRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
         BigDecimal newPrice = new BigDecimal("55.5");
@@ -114,9 +140,176 @@ public class StockServiceTest {
         assertEquals(newPrice, updated.getPriceHistory().get(0).getPrice()); // latest history
     }
 
+    @Test
+    public void testUpdatePriceBumpsStockAndHistoryVersions() {
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setCurrentPrice(new BigDecimal("50.0"));
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
+        when(stockRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        String stocksBefore = versions.stocksEtag();
+        String historyBefore = versions.historyEtag(1L);
+        String otherHistory = versions.historyEtag(2L);
+        service.updatePrice(1L, new BigDecimal("55.5"));
+
+        assertNotEquals(stocksBefore, versions.stocksEtag());
+        assertNotEquals(historyBefore, versions.historyEtag(1L));
+        assertEquals(otherHistory, versions.historyEtag(2L));
+    }
+
+    @Test
+    public void testUpdatePriceAdvancesSequenceAndAppendsToOutbox() {
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setCurrentPrice(new BigDecimal("50.0"));
+        s.setEventSequence(7);
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
+        when(stockRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        Stock updated = service.updatePrice(1L, new BigDecimal("55.5"));
+
+        assertEquals(8, updated.getEventSequence());
+        verify(outbox).stockChanged(updated);
+    }
+
+    @Test
+    public void testReaderAfterCommitDoesNotJoinOlderStockLoad() throws Exception {
+        Stock before = new Stock();
+        before.setId(1L);
+        Stock after = new Stock();
+        after.setId(1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stockRepository.findById(1L)).thenAnswer(i -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(before);
+        }).thenReturn(Optional.of(after));
+
+        CompletableFuture<Stock> leader = CompletableFuture.supplyAsync(() -> service.getById(1L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        jsonCache.invalidate(1L); // a change to the stock commits while the leader is loading
+        Stock follower = service.getById(1L);
+        release.countDown();
+
+        assertSame(after, follower);
+        assertSame(before, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReaderAfterCommitDoesNotJoinOlderHistoryLoad() throws Exception {
+        List<StockPriceHistory> before = List.of();
+        List<StockPriceHistory> after = List.of(StockPriceHistory.builder().price(BigDecimal.ONE).build());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stockPriceHistoryRepository.findByStockIdOrderByTimestampAsc(1L)).thenAnswer(i -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return before;
+        }).thenReturn(after);
+
+        CompletableFuture<List<StockPriceHistory>> leader = CompletableFuture.supplyAsync(() -> service.getPriceHistory(1L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        versions.historyChanged(1L); // a tick commits while the leader is loading
+        String etag = versions.historyEtag(1L);
+        List<StockPriceHistory> follower = service.getPriceHistory(1L);
+        release.countDown();
+
+        assertEquals(after, follower);
+        assertEquals(etag, versions.historyEtag(1L));
+        assertEquals(before, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSourcedUpdateAdvancesHighWaterMark() {
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setCurrentPrice(new BigDecimal("50.0"));
+        s.setSourceSequence(5L);
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
+        when(stockRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+        Instant at = Instant.parse("2024-01-02T10:00:00Z");
+
+        Stock updated = service.updatePrice(1L, new BigDecimal("55.5"), at, 6L);
+
+        assertEquals(6L, updated.getSourceSequence());
+        assertEquals(at, updated.getSourceTimestamp());
+        assertFalse(deduplicator.admit(1L, null, 6L));
+    }
+
+    @Test
+    public void testRepeatedSourceSequenceIsDroppedUnderLock() {
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setCurrentPrice(new BigDecimal("50.0"));
+        s.setSourceSequence(5L);
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
+
+        assertNull(service.updatePrice(1L, new BigDecimal("55.5"), null, 5L));
+        assertNull(service.updatePrice(1L, new BigDecimal("55.5"), null, 4L));
+
+        assertTrue(s.getPriceHistory().isEmpty());
+        verify(stockRepository, never()).save(any());
+        verifyNoInteractions(outbox, eventPublisher);
+    }
+
+    @Test
+    public void testDeleteStockAppendsNextSequenceToOutbox() {
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setEventSequence(3);
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
+        when(stockExchangeRepository.findIdsByStockId(1L)).thenReturn(Collections.emptyList());
+
+        service.delete(1L);
+
+        verify(outbox).stockDeleted(1L, 4L);
+    }
+
+    @Test
+    public void testDeleteStockAppendsAffectedExchangesToOutbox() {
+        Stock s = new Stock();
+        s.setId(1L);
+        StockExchange ex1 = new StockExchange();
+        ex1.setId(10L);
+        ex1.setLiveInMarket(true);
+        StockExchange ex2 = new StockExchange();
+        ex2.setId(20L);
+        ex2.setLiveInMarket(false);
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
+        when(stockExchangeRepository.findIdsByStockId(1L)).thenReturn(List.of(10L, 20L));
+        when(stockExchangeRepository.findAllById(List.of(10L, 20L))).thenReturn(List.of(ex1, ex2));
+        when(stockExchangeRepository.findStockIdsByExchangeId(10L)).thenReturn(List.of(11L));
+
+        service.delete(1L);
+
+        // Read back only after the membership removal and the deactivation
+        InOrder order = inOrder(stockRepository, stockExchangeRepository, outbox);
+        order.verify(stockRepository).removeStockFromAllExchanges(1L);
+        order.verify(stockExchangeRepository).deactivateIfBelowStockThreshold(List.of(10L, 20L), 10);
+        order.verify(outbox).stockDeleted(1L, 1L);
+        order.verify(stockExchangeRepository).findAllById(List.of(10L, 20L));
+        ArgumentCaptor<ExchangeDto> exchanges = ArgumentCaptor.forClass(ExchangeDto.class);
+        verify(outbox, times(2)).exchangeChanged(exchanges.capture());
+        assertEquals(List.of(10L, 20L), exchanges.getAllValues().stream().map(ExchangeDto::getId).toList());
+        assertEquals(List.of(11L), exchanges.getAllValues().get(0).getStockIds());
+        assertTrue(exchanges.getAllValues().get(0).isLiveInMarket());
+        assertFalse(exchanges.getAllValues().get(1).isLiveInMarket());
+    }
+
+    @Test
+    public void testDeleteMissingStockPublishesNothing() {
+        when(stockExchangeRepository.findIdsByStockId(1L)).thenReturn(Collections.emptyList());
+
+        service.delete(1L);
+
+        verifyNoInteractions(outbox);
+    }
+
     @Test
     public void testUpdatePriceStockNotFound() {
-        when(stockRepository.findById(999L)).thenReturn(Optional.empty());
+        when(stockRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> service.updatePrice(999L, new BigDecimal("100")));
     }
@@ -174,7 +367,7 @@ public class StockServiceTest {
         Stock s = new Stock();
         s.setId(1L);
         s.setCurrentPrice(new BigDecimal("100"));
-        when(stockRepository.findById(1L)).thenReturn(Optional.of(s));
+        when(stockRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(s));
         when(stockRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
         BigDecimal newPrice = new BigDecimal("120");
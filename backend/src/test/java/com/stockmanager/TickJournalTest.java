@@ -0,0 +1,153 @@
+package com.stockmanager;
+import com.stockmanager.entity.OutboxEvent;
+import com.stockmanager.service.EventOutbox;
+import com.stockmanager.service.TickJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TickJournalTest {
+
+    private TickJournal journal;
+    private String epoch;
+
+    @BeforeEach
+    public void setup() {
+        journal = new TickJournal(3);
+        epoch = journal.epoch();
+    }
+
+    @Test
+    public void testSequencesAreGapFree() {
+        assertEquals(1, journal.record(event(7L, 1L)).sequence());
+        assertEquals(2, journal.record(event(null, null)).sequence());
+        assertEquals(2, journal.lastSequence());
+    }
+
+    @Test
+    public void testReplaysTicksAfterSequence() {
+        record(4);
+
+        List<Long> replayed = journal.since(epoch, 2).orElseThrow().stream().map(TickJournal.Tick::sequence).toList();
+
+        assertEquals(List.of(3L, 4L), replayed);
+        assertEquals(List.of(), journal.since(epoch, 4).orElseThrow());
+    }
+
+    @Test
+    public void testFromStartWhileNothingHasBeenOverwritten() {
+        record(3);
+
+        assertEquals(3, journal.since(epoch, 0).orElseThrow().size());
+    }
+
+    @Test
+    public void testGapBeyondBufferNeedsSnapshot() {
+        record(5); // 1 and 2 overwritten
+
+        assertEquals(Optional.empty(), journal.since(epoch, 1));
+        assertEquals(3, journal.since(epoch, 2).orElseThrow().size());
+    }
+
+    @Test
+    public void testUnknownSequenceNeedsSnapshot() {
+        record(2);
+
+        // e.g. a sequence from before a restart
+        assertEquals(Optional.empty(), journal.since(epoch, 10));
+        assertEquals(Optional.empty(), journal.since(epoch, -1));
+        assertEquals(Optional.empty(), journal.since("previous-epoch", 1));
+    }
+
+    @Test
+    public void testSnapshotHoldsLatestStateAsOfSequence() {
+        journal.load(new TickJournal.Tick(0, "/topic/stocks", 1L, 4L, null, json("{\"v\":4}")));
+        journal.load(new TickJournal.Tick(0, "/topic/exchanges", null, null, 9L, json("{\"e\":0}")));
+        journal.record(stock("/topic/stocks", 1L, 5L, "{\"v\":5}"));
+        journal.record(stock("/topic/stocks", 2L, 1L, "{\"w\":1}"));
+        journal.record(exchange("/topic/exchanges", 9L, "{\"e\":1}"));
+
+        TickJournal.Snapshot snapshot = journal.snapshot();
+
+        assertEquals(3, snapshot.sequence());
+        assertEquals(List.of(1L, 2L), snapshot.stocks().stream().map(TickJournal.Tick::stockId).toList());
+        assertEquals("{\"v\":5}", new String(snapshot.stocks().get(0).payload(), StandardCharsets.UTF_8));
+        assertEquals("{\"e\":1}", new String(snapshot.exchanges().get(0).payload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOlderStockMessagesDoNotRollBack() {
+        journal.record(stock("/topic/stocks", 1L, 5L, "{\"v\":5}"));
+        // a re-sent row, and a load that read the stock before that change
+        journal.record(stock("/topic/stocks", 1L, 4L, "{\"v\":4}"));
+        journal.load(new TickJournal.Tick(0, "/topic/stocks", 1L, 3L, null, json("{\"v\":3}")));
+
+        assertEquals(5L, journal.snapshot().stocks().get(0).stockSequence());
+    }
+
+    @Test
+    public void testDeletionsLeaveTheSnapshot() {
+        journal.record(stock("/topic/stocks", 1L, 1L, "{}"));
+        journal.record(exchange("/topic/exchanges", 9L, "{}"));
+        journal.record(stock("/topic/stocks/delete", 1L, 2L, "1"));
+        journal.record(exchange("/topic/exchanges/delete", 9L, "9"));
+        // re-sent older change after the delete
+        journal.record(stock("/topic/stocks", 1L, 1L, "{}"));
+
+        TickJournal.Snapshot snapshot = journal.snapshot();
+
+        assertEquals(List.of(), snapshot.stocks());
+        assertEquals(List.of(), snapshot.exchanges());
+    }
+
+    @Test
+    public void testBatchCreationBecomesOneStatePerStock() {
+        journal.record(stock("/topic/stocks", 2L, 3L, "{\"v\":3}"));
+        journal.record(OutboxEvent.builder().destination(EventOutbox.STOCKS_BATCH_TOPIC)
+                .payload(json("[{\"id\":1,\"exchangeIds\":[4]},{\"name\":\"x\",\"id\":2}]")).build());
+
+        TickJournal.Snapshot snapshot = journal.snapshot();
+
+        // kept whole for replay
+        assertEquals(EventOutbox.STOCKS_BATCH_TOPIC, journal.since(epoch, 1).orElseThrow().get(0).destination());
+        assertEquals(List.of(1L, 2L), snapshot.stocks().stream().map(TickJournal.Tick::stockId).toList());
+        TickJournal.Tick created = snapshot.stocks().get(0);
+        assertEquals("/topic/stocks", created.destination());
+        assertEquals(1L, created.stockSequence());
+        assertEquals(2, created.sequence());
+        assertEquals("{\"id\":1,\"exchangeIds\":[4]}", new String(created.payload(), StandardCharsets.UTF_8));
+        // a stock already ahead of sequence 1 keeps its state
+        assertEquals("{\"v\":3}", new String(snapshot.stocks().get(1).payload(), StandardCharsets.UTF_8));
+    }
+
+    private void record(int count) {
+        for (int i = 0; i < count; i++) journal.record(event((long) i, 1L));
+    }
+
+    private static OutboxEvent stock(String destination, Long stockId, Long sequence, String payload) {
+        return OutboxEvent.builder().destination(destination).payload(json(payload))
+                .stockId(stockId).stockSequence(sequence).build();
+    }
+
+    private static OutboxEvent exchange(String destination, Long exchangeId, String payload) {
+        return OutboxEvent.builder().destination(destination).payload(json(payload)).exchangeId(exchangeId).build();
+    }
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static OutboxEvent event(Long stockId, Long sequence) {
+        return OutboxEvent.builder()
+                .destination("/topic/stocks")
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .stockId(stockId)
+                .stockSequence(sequence)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.stockmanager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanager.config.JwtUtils;
+import com.stockmanager.config.WarmupRunner;
+import com.stockmanager.entity.Stock;
+import com.stockmanager.service.StockExchangeService;
+import com.stockmanager.service.StockJsonCache;
+import com.stockmanager.service.StockService;
+
+public class WarmupRunnerTest {
+
+    private StockService stockService;
+    private StockExchangeService exchangeService;
+    private StockJsonCache stockJsonCache;
+    private JwtUtils jwtUtils;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setup() {
+        stockService = mock(StockService.class);
+        exchangeService = mock(StockExchangeService.class);
+        stockJsonCache = mock(StockJsonCache.class);
+        jwtUtils = new JwtUtils("0123456789abcdef0123456789abcdef", 60_000);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        Stock s = new Stock();
+        s.setId(1L);
+        s.setName("A");
+        s.setCurrentPrice(BigDecimal.ONE);
+        s.setLastUpdate(Instant.now());
+        when(stockService.listAll()).thenReturn(List.of(s));
+        when(stockService.getById(1L)).thenReturn(s);
+        when(stockService.getPriceHistory(1L)).thenReturn(List.of());
+        when(exchangeService.listAll()).thenReturn(List.of());
+    }
+
+    private WarmupRunner runner(int iterations) {
+        return new WarmupRunner(stockService, exchangeService, stockJsonCache,
+                new ObjectMapper().findAndRegisterModules(), jwtUtils, transactionManager, iterations);
+    }
+
+    @Test
+    public void preloadsQuotesThenRunsConfiguredIterations() {
+        runner(3).run(null);
+
+        verify(stockJsonCache).jsonArray(any(), anyLong());
+        verify(stockService, times(3)).getById(1L);
+        verify(stockJsonCache, times(3)).serialize(any());
+        verify(exchangeService, times(4)).listAll(); // preload + one per iteration
+    }
+
+    @Test
+    public void zeroIterationsDisablesWarmup() {
+        runner(0).run(null);
+        verify(stockService, never()).listAll();
+    }
+
+    @Test
+    public void failureDoesNotBlockStartup() {
+        when(stockService.getById(1L)).thenThrow(new IllegalStateException("db down"));
+        assertDoesNotThrow(() -> runner(2).run(null));
+    }
+}
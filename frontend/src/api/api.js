@@ -1,5 +1,6 @@
 import axios from 'axios';
 import { toast } from "react-toastify";
+import { jwtDecode } from "jwt-decode";
 
 const API_BASE_URL = window._env_?.REACT_APP_API_BASE_URL || process.env.REACT_APP_API_BASE_URL;
 
@@ -21,10 +22,71 @@ api.interceptors.request.use(
   (error) => Promise.reject(error)
 );
 
+// === Refresh the access token once per burst of 401s ===
+// Refresh tokens rotate on use, so concurrent requests must share a single refresh call
+let refreshInFlight = null;
+
+const refreshAccessToken = () => {
+  if (!refreshInFlight) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshInFlight = axios
+      .post(`${API_BASE_URL}/auth/refresh`, { refreshToken }, { headers: { 'Content-Type': 'application/json' } })
+      .then((res) => {
+        localStorage.setItem('jwtToken', res.data.token);
+        localStorage.setItem('refreshToken', res.data.refreshToken);
+        return res.data.token;
+      })
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
+// === Access token for connections that do not go through axios (the STOMP CONNECT) ===
+// Refreshed first when it is expired or about to be; null when there is no usable session
+export const freshAccessToken = async () => {
+  const token = localStorage.getItem('jwtToken');
+  let expiresAt = 0;
+  try {
+    expiresAt = token ? jwtDecode(token).exp * 1000 : 0;
+  } catch {
+    // unreadable token: treat as expired
+  }
+  if (token && expiresAt - Date.now() > 30000) return token;
+  if (!localStorage.getItem('refreshToken')) return null;
+  try {
+    return await refreshAccessToken();
+  } catch (refreshError) {
+    // rejected by the server: same as the interceptor; unreachable (a reconnect while it is down): keep it
+    if (refreshError.response) localStorage.removeItem('refreshToken');
+    return null;
+  }
+};
+
 // === Handle error responses globally ===
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    const original = error.config;
+    if (
+      error.response?.status === 401 &&
+      original &&
+      !original._retried &&
+      !original.url?.startsWith('/auth/') &&
+      localStorage.getItem('refreshToken')
+    ) {
+      original._retried = true;
+      try {
+        const token = await refreshAccessToken();
+        original.headers['Authorization'] = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        localStorage.removeItem('refreshToken');
+        // fall through to the session-expired handling below
+      }
+    }
+
     let message = "Unexpected error";
 
     if (error.response) {
@@ -75,11 +137,20 @@ export const login = async (username, password) => {
   if (token) {
     localStorage.setItem('jwtToken', token);
   }
+  if (res.data.refreshToken) {
+    localStorage.setItem('refreshToken', res.data.refreshToken);
+  }
   return res.data;
 };
 
 export const logout = () => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (refreshToken) {
+    // best effort: ends this session's refresh token family on the server
+    api.post('/auth/logout', { refreshToken }).catch(() => {});
+  }
   localStorage.removeItem('jwtToken');
+  localStorage.removeItem('refreshToken');
   toast.info("Logged out.");
 };
 
@@ -91,6 +162,8 @@ export const createStock = (data) => api.post('/stocks', data);
 export const updateStockPrice = (id, price) =>
   api.put(`/stocks/${id}/price`, { currentPrice: price });
 export const deleteStock = (id) => api.delete(`/stocks/${id}`);
+// params: { q, exchangeId, minPrice, maxPrice, sort, page, size }
+export const searchStocks = (params) => api.get('/stocks/search', { params });
 
 //
 // === EXCHANGES ===
@@ -105,4 +178,16 @@ export const removeStockFromExchange = (exchangeId, stockId) =>
   api.delete(`/exchanges/${exchangeId}/stocks/${stockId}`);
 
 export const getStockPriceHistory = (stockId) =>
-  api.get(`/stocks/${stockId}/history`);
\ No newline at end of file
+  api.get(`/stocks/${stockId}/history`);
+
+// Messages published after position ({ epoch, sequence }), or a snapshot if they are gone
+export const getTicks = (position) =>
+  api.get('/ticks', { params: position ? { epoch: position.epoch, since: position.sequence } : {} });
+
+//
+// === ALERTS ===
+//
+export const getAlerts = () => api.get('/alerts');
+export const createAlert = (stockId, threshold, direction) =>
+  api.post('/alerts', { stockId, threshold, direction });
+export const deleteAlert = (id) => api.delete(`/alerts/${id}`);
@@ -1,48 +1,119 @@
 // src/hooks/useWebSocket.js
-import { useEffect } from "react";
+import { useEffect, useRef } from "react";
 import SockJS from "sockjs-client";
 import { Client } from "@stomp/stompjs";
+import { freshAccessToken, getTicks } from "./api";
+
+const TOPICS = ["/topic/exchanges", "/topic/exchanges/delete", "/topic/stocks", "/topic/stocks/delete",
+  "/topic/stocks/batch"];
+
+export default function useWebSocket(handlers) {
+  // Handlers change on every render; the connection (and its stream position) must not
+  const handlersRef = useRef(handlers);
+  handlersRef.current = handlers;
 
-export default function useWebSocket({ onExchangeUpdate, onExchangeDelete, onStockUpdate, onStockDelete }) {
   useEffect(() => {
+    let token = null;
     const client = new Client({
       brokerURL: undefined, // we are using SockJS
-      connectHeaders: {},
+      // Before every (re)connect: the token identifies the user for /user/queue/** delivery (price
+      // alerts), and access tokens expire long before a tab is closed
+      beforeConnect: async () => {
+        token = await freshAccessToken();
+        client.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+      },
       debug: (str) => console.log(str),
       reconnectDelay: 5000,
       webSocketFactory: () => new SockJS(window._env_?.REACT_APP_WS_BASE_URL || process.env.REACT_APP_WS_BASE_URL),
     });
 
+    // { epoch, sequence } of the last message applied; sent back on reconnect to replay the gap
+    let position = null;
+    let stockSequences = {}; // stockId -> last stock-sequence applied
+    let held = null; // live messages that arrive while a replay is in flight
+
+    const dispatch = (tick) => {
+      if (tick.stockId != null) {
+        if (stockSequences[tick.stockId] >= tick.stockSequence) return; // duplicate or stale
+        stockSequences[tick.stockId] = tick.stockSequence;
+      }
+      const h = handlersRef.current;
+      switch (tick.destination) {
+        case "/topic/exchanges": h.onExchangeUpdate?.(tick.body); break;
+        case "/topic/exchanges/delete": h.onExchangeDelete?.(tick.body); break;
+        case "/topic/stocks": h.onStockUpdate?.(tick.body); break;
+        case "/topic/stocks/delete": h.onStockDelete?.(tick.body); break;
+        // Stocks created together: an array of stocks, each at stock-sequence 1
+        case "/topic/stocks/batch":
+          tick.body.forEach((stock) => {
+            if (stockSequences[stock.id] >= 1) return;
+            stockSequences[stock.id] = 1;
+            h.onStockUpdate?.(stock);
+          });
+          break;
+        default:
+      }
+    };
+
+    const apply = (tick) => {
+      if (position && position.epoch === tick.epoch && tick.sequence <= position.sequence) return;
+      position = { epoch: tick.epoch, sequence: tick.sequence };
+      dispatch(tick);
+    };
+
+    const onMessage = (msg) => {
+      const headers = msg.headers;
+      const tick = {
+        epoch: headers.epoch,
+        sequence: Number(headers.sequence),
+        destination: headers.destination,
+        body: JSON.parse(msg.body),
+        stockId: headers["stock-id"] != null ? Number(headers["stock-id"]) : null,
+        stockSequence: Number(headers["stock-sequence"]),
+      };
+      if (held) held.push(tick);
+      else apply(tick);
+    };
+
+    // Only what was missed while disconnected, or a full snapshot on first connect or if the server
+    // no longer has it; either is served from memory, and live messages it covers are dropped
+    const resync = async () => {
+      held = [];
+      try {
+        const { data } = await getTicks(position);
+        if (data.snapshot) {
+          stockSequences = { ...data.stockSequences };
+          handlersRef.current.onSnapshot?.(data);
+        } else {
+          data.ticks.forEach((t) => apply({ epoch: data.epoch, sequence: t.sequence, destination: t.destination,
+            body: t.payload, stockId: t.stockId, stockSequence: t.stockSequence }));
+        }
+        position = { epoch: data.epoch, sequence: data.sequence };
+      } catch {
+        // carry on with live messages; the next reconnect tries again
+      }
+      const live = held;
+      held = null;
+      live.forEach(apply);
+    };
+
     client.onConnect = () => {
       console.log("Connected to WebSocket");
 
-      client.subscribe("/topic/exchanges", (msg) => {
-        const exchange = JSON.parse(msg.body);
-        console.log(exchange);
-        
-        onExchangeUpdate?.(exchange);
-      });
-
-      client.subscribe("/topic/exchanges/delete", (msg) => {
-        const id = JSON.parse(msg.body);
-        onExchangeDelete?.(id);
-      });
-
-      client.subscribe("/topic/stocks", (msg) => {
-        const stock = JSON.parse(msg.body);
-        console.log(stock);
-        
-        onStockUpdate?.(stock);
-      });
-
-      client.subscribe("/topic/stocks/delete", (msg) => {
-        const id = JSON.parse(msg.body);
-        onStockDelete?.(id);
-      });
+      TOPICS.forEach((topic) => client.subscribe(topic, onMessage));
+
+      if (token) {
+        client.subscribe("/user/queue/alerts", (msg) => {
+          handlersRef.current.onAlert?.(JSON.parse(msg.body));
+        });
+      }
+
+      // After subscribing, so live messages pick up where the snapshot or replay ends
+      resync();
     };
 
     client.activate();
 
     return () => client.deactivate();
-  }, [onExchangeUpdate, onExchangeDelete, onStockUpdate, onStockDelete]);
+  }, []);
 }
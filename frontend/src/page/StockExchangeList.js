@@ -43,6 +43,10 @@ const StockExchangeList = () => {
     onExchangeDelete: (deletedId) => {
       setExchanges((prev) => prev.filter((ex) => ex.id !== deletedId));
     },
+    onSnapshot: (snapshot) => {
+      setExchanges(snapshot.exchanges);
+      setStocks(snapshot.stocks);
+    },
   });
 
 
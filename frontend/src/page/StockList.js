@@ -75,6 +75,12 @@ function StockList() {
         return copy;
       });
     },
+    onSnapshot: (snapshot) => {
+      const exchangeMap = {};
+      snapshot.exchanges.forEach((ex) => (exchangeMap[ex.id] = ex));
+      setExchanges(exchangeMap);
+      setStocks(snapshot.stocks);
+    },
   });
 
   const loadData = async () => {